@@ -0,0 +1,95 @@
+import java.util.List;
+
+/**
+ * The ranked alternatives of a decision, as computed by the Advisor. Expected
+ * scores are final game totals, including everything already scored.
+ */
+public class Advice {
+
+	private final List<Hold> holds;
+	private final List<PlayOption> plays;
+
+	public Advice(List<Hold> holds, List<PlayOption> plays) {
+		this.holds = holds;
+		this.plays = plays;
+	}
+
+	/**
+	 * Returns every subset of dice to hold, best first. Empty when there are no
+	 * rerolls remaining.
+	 */
+	public List<Hold> getHolds() {
+		return holds;
+	}
+
+	/**
+	 * Returns every play that can be filled, best first.
+	 */
+	public List<PlayOption> getPlays() {
+		return plays;
+	}
+
+	public Hold getBestHold() {
+		return holds.isEmpty() ? null : holds.get(0);
+	}
+
+	public PlayOption getBestPlay() {
+		return plays.isEmpty() ? null : plays.get(0);
+	}
+
+	/**
+	 * Returns the expected final score of filling the play, or NaN if the play
+	 * cannot be filled.
+	 */
+	public double getExpectedScore(Game.Play play) {
+		for (PlayOption option : plays) {
+			if (option.getPlay() == play) {
+				return option.getExpectedScore();
+			}
+		}
+		return Double.NaN;
+	}
+
+	public static class Hold {
+		private final int heldMask;
+		private final double expectedScore;
+
+		public Hold(int heldMask, double expectedScore) {
+			this.heldMask = heldMask;
+			this.expectedScore = expectedScore;
+		}
+
+		/**
+		 * Returns the held dice, with bit i set if die i of the Dice is held.
+		 */
+		public int getHeldMask() {
+			return heldMask;
+		}
+
+		public boolean isHeld(int die) {
+			return (heldMask & (1 << die)) != 0;
+		}
+
+		public double getExpectedScore() {
+			return expectedScore;
+		}
+	}
+
+	public static class PlayOption {
+		private final Game.Play play;
+		private final double expectedScore;
+
+		public PlayOption(Game.Play play, double expectedScore) {
+			this.play = play;
+			this.expectedScore = expectedScore;
+		}
+
+		public Game.Play getPlay() {
+			return play;
+		}
+
+		public double getExpectedScore() {
+			return expectedScore;
+		}
+	}
+}
@@ -0,0 +1,111 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Ranks the holds and plays of a round by their optimal expected final score,
+ * using the state values of a ValueTable. The round of the player's state is
+ * evaluated once and reused until the state changes, after which every query is
+ * a handful of table lookups.
+ *
+ * An Advisor is not thread safe.
+ */
+public class Advisor {
+
+	private static final int HOLDS = 1 << Game.DICE_COUNT;
+
+	private final ValueTable table;
+	// created on first use so that loading the advisor costs nothing at startup
+	private Solver.Turn turn;
+	private int evaluatedState = -1;
+
+	public Advisor(ValueTable table) {
+		if (null == table) {
+			throw new NullPointerException("Advisor table cannot be null");
+		}
+		this.table = table;
+	}
+
+	/**
+	 * Ranks the decisions of the player with the dice.
+	 *
+	 * @param player the player taking the round
+	 * @param dice the current standard dice
+	 * @param rerolls the rerolls remaining
+	 * @return the ranked holds, if any rerolls remain, and plays
+	 */
+	public Advice advise(Player player, Dice dice, int rerolls) {
+		return advise(player, dice, rerolls, false);
+	}
+
+	/**
+	 * Ranks the decisions of the player with the dice.
+	 *
+	 * @param player the player taking the round
+	 * @param dice the current standard dice
+	 * @param rerolls the rerolls remaining
+	 * @param isBonusYahtzee true to rank the slots filled alongside a bonus yahtzee
+	 * @return the ranked holds, if any rerolls remain, and plays
+	 */
+	public Advice advise(Player player, Dice dice, int rerolls, boolean isBonusYahtzee) {
+		int hand = dice.getHandIndex();
+		if (hand < 0) {
+			throw new IllegalArgumentException("Advice is only available for standard dice");
+		}
+		if (rerolls < 0 || rerolls > Solver.REROLLS) {
+			throw new IllegalArgumentException("Rerolls must be between 0 and " + Solver.REROLLS);
+		}
+		Solver.Turn turn = evaluate(player);
+		double scored = player.score();
+
+		List<Advice.Hold> holds = new ArrayList<>();
+		if (rerolls > 0 && !isBonusYahtzee) {
+			List<Die> faces = dice.getDice();
+			for (int held = 0; held < HOLDS; held++) {
+				int key = 0;
+				for (int i = 0; i < Game.DICE_COUNT; i++) {
+					if ((held & (1 << i)) != 0) {
+						key += HandIndex.getKeyWeight(faces.get(i).getFace());
+					}
+				}
+				double value = turn.getKeepValue(Solver.getKeepOfKey(key), rerolls);
+				holds.add(new Advice.Hold(held, scored + value));
+			}
+			holds.sort(Comparator.comparingDouble(Advice.Hold::getExpectedScore).reversed());
+		}
+
+		List<Advice.PlayOption> plays = new ArrayList<>();
+		for (Game.Play play : Game.Play.values()) {
+			double value = isBonusYahtzee ? turn.getBonusYahtzeeValue(play, hand) : getPlayValue(turn, play, hand);
+			if (value != Double.NEGATIVE_INFINITY) {
+				plays.add(new Advice.PlayOption(play, scored + value));
+			}
+		}
+		plays.sort(Comparator.comparingDouble(Advice.PlayOption::getExpectedScore).reversed());
+		return new Advice(holds, plays);
+	}
+
+	private double getPlayValue(Solver.Turn turn, Game.Play play, int hand) {
+		if (Game.Play.YAHTZEE != play) {
+			return turn.getPlayValue(play, hand);
+		}
+		double value = turn.getPlayValue(play, hand);
+		// a scored yahtzee may be played again as a bonus yahtzee
+		for (Game.Play fill : Game.Play.values()) {
+			value = Math.max(value, turn.getBonusYahtzeeValue(fill, hand));
+		}
+		return value;
+	}
+
+	private Solver.Turn evaluate(Player player) {
+		if (null == turn) {
+			turn = new Solver.Turn(table);
+		}
+		int state = ValueTable.getState(player);
+		if (state != evaluatedState) {
+			turn.evaluate(ValueTable.getOpenMask(player), ValueTable.getUpperSubtotal(player), player.hadYahtzee());
+			evaluatedState = state;
+		}
+		return turn;
+	}
+}
@@ -0,0 +1,23 @@
+/**
+ * A ValueTable held in memory, as produced by the Solver.
+ */
+public class ArrayValueTable implements ValueTable {
+
+	private final float[] values;
+
+	public ArrayValueTable(float[] values) {
+		if (values.length != STATES) {
+			throw new IllegalArgumentException("Expected " + STATES + " values but was " + values.length);
+		}
+		this.values = values;
+	}
+
+	@Override
+	public double getValue(int state) {
+		return values[state];
+	}
+
+	public float[] getValues() {
+		return values;
+	}
+}
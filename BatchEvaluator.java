@@ -0,0 +1,116 @@
+/**
+ * Evaluates large batches of standard hands at once. Hands are held as a
+ * struct of arrays, faces[d][i] being the face (1 to Game.DICE_SIDES) of die d
+ * of hand i, and results are written to the same index i of the output.
+ *
+ * Scores are base scores, as Scorer.getBaseScore, which all fit in a byte.
+ * Flags are a bit set of the patterns in each hand.
+ *
+ * create returns the Vector API implementation when it is on the class path
+ * and the jdk.incubator.vector module is available, otherwise the scalar
+ * implementation, which produces identical results.
+ */
+public abstract class BatchEvaluator {
+
+	public static final int KIND_3 = 1;
+	public static final int KIND_4 = 1 << 1;
+	public static final int YAHTZEE = 1 << 2;
+	public static final int FULL_HOUSE = 1 << 3;
+	public static final int STRAIGHT_4 = 1 << 4;
+	public static final int STRAIGHT_5 = 1 << 5;
+
+	private static final String VECTOR_EVALUATOR = "VectorBatchEvaluator";
+
+	/**
+	 * Returns the fastest available evaluator.
+	 */
+	public static BatchEvaluator create() {
+		String packageName = BatchEvaluator.class.getPackageName();
+		String name = packageName.isEmpty() ? VECTOR_EVALUATOR : packageName + "." + VECTOR_EVALUATOR;
+		try {
+			return (BatchEvaluator) Class.forName(name).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return scalar();
+		}
+	}
+
+	public static BatchEvaluator scalar() {
+		return new Scalar();
+	}
+
+	/**
+	 * Writes the pattern flags of hands from (inclusive) to to (exclusive).
+	 */
+	public abstract void evaluate(byte[][] faces, int from, int to, byte[] flags);
+
+	/**
+	 * Writes the base score of the play for hands from (inclusive) to to
+	 * (exclusive).
+	 */
+	public abstract void score(Game.Play play, byte[][] faces, int from, int to, byte[] scores);
+
+	protected static void checkRange(byte[][] faces, int from, int to, byte[] out) {
+		if (faces.length != Game.DICE_COUNT) {
+			throw new IllegalArgumentException("Expected faces of " + Game.DICE_COUNT + " dice");
+		}
+		if (from < 0 || from > to || to > out.length) {
+			throw new IndexOutOfBoundsException("Range " + from + " to " + to + " is out of bounds");
+		}
+		for (byte[] die : faces) {
+			if (to > die.length) {
+				throw new IndexOutOfBoundsException("Range " + from + " to " + to + " is out of bounds");
+			}
+		}
+	}
+
+	/**
+	 * Evaluates each hand through its HandIndex, looking up the same tables as
+	 * Scorer.
+	 */
+	public static class Scalar extends BatchEvaluator {
+
+		private static final byte[] FLAGS = new byte[HandIndex.SIZE];
+		private static final byte[][] SCORES = new byte[Game.Play.values().length][HandIndex.SIZE];
+
+		static {
+			for (int hand = 0; hand < HandIndex.SIZE; hand++) {
+				for (Game.Play play : Game.Play.values()) {
+					SCORES[play.ordinal()][hand] = (byte) Scorer.getBaseScore(play, hand);
+				}
+				int flags = 0;
+				flags |= Scorer.getBaseScore(Game.Play.KIND_3, hand) > 0 ? KIND_3 : 0;
+				flags |= Scorer.getBaseScore(Game.Play.KIND_4, hand) > 0 ? KIND_4 : 0;
+				flags |= Scorer.getBaseScore(Game.Play.YAHTZEE, hand) > 0 ? YAHTZEE : 0;
+				flags |= Scorer.getBaseScore(Game.Play.FULL_HOUSE, hand) > 0 ? FULL_HOUSE : 0;
+				flags |= Scorer.getBaseScore(Game.Play.STRAIGHT_4, hand) > 0 ? STRAIGHT_4 : 0;
+				flags |= Scorer.getBaseScore(Game.Play.STRAIGHT_5, hand) > 0 ? STRAIGHT_5 : 0;
+				FLAGS[hand] = (byte) flags;
+			}
+		}
+
+		@Override
+		public void evaluate(byte[][] faces, int from, int to, byte[] flags) {
+			checkRange(faces, from, to, flags);
+			for (int i = from; i < to; i++) {
+				flags[i] = FLAGS[indexOf(faces, i)];
+			}
+		}
+
+		@Override
+		public void score(Game.Play play, byte[][] faces, int from, int to, byte[] scores) {
+			checkRange(faces, from, to, scores);
+			byte[] table = SCORES[play.ordinal()];
+			for (int i = from; i < to; i++) {
+				scores[i] = table[indexOf(faces, i)];
+			}
+		}
+
+		private static int indexOf(byte[][] faces, int i) {
+			int key = 0;
+			for (byte[] die : faces) {
+				key += HandIndex.getKeyWeight(die[i]);
+			}
+			return HandIndex.indexOfKey(key);
+		}
+	}
+}
@@ -1,5 +1,5 @@
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.Scanner;
 import java.util.SortedMap;
 import java.util.stream.Collectors;
 import java.util.HashMap;
@@ -11,15 +11,39 @@ import java.util.NoSuchElementException;
 
 public class Controller {
 
-    private final Scanner scanner;
+    public static final int LEADERBOARD_TOP = 10;
+    public static final int LEADERBOARD_WINDOW = 2;
+
+    // hints sampled without a value table stop at this time or interval width
+    private static final Duration HINT_BUDGET = Duration.ofMillis(200);
+    private static final double HINT_WIDTH = 0.5;
+    private static final String TOGGLE_KEYS = "1234567890ABCDEFGHIJ";
+
+    private final GameIO io;
     private Map<Character, Game.Play> playKeys;
     private Map<Character, Game.Action> actionKeys;
-    
-    public Controller(Scanner scanner) {
-        if (null == scanner) {
-            throw new NullPointerException("Controller scanner cannot be null");
+    private Advisor advisor;
+    private RerollEstimator estimator;
+    private final Screen screen;
+    private boolean messagesShown;
+    // nothing is shown, or even formatted, while quiet
+    private boolean quiet;
+
+    public Controller(GameIO io) {
+        this(io, false);
+    }
+
+    /**
+     * @param io the terminal to interact with the players through
+     * @param useScreen true to draw to a full screen ANSI terminal, redrawing only
+     * what changed between prompts, rather than printing line by line
+     */
+    public Controller(GameIO io, boolean useScreen) {
+        if (null == io) {
+            throw new NullPointerException("Controller io cannot be null");
         }
-        this.scanner = scanner;
+        this.io = io;
+        this.screen = useScreen ? new Screen(io) : null;
         setDefaultControls();
     }
 
@@ -39,17 +63,23 @@ public class Controller {
         playKeys.put('c', Game.Play.CHANCE);
         playKeys.put('y', Game.Play.YAHTZEE);
 
-        actionKeys = Map.of(
-            'r', Game.Action.REROLL,
-            'k', Game.Action.KEEP,
-            'a', Game.Action.SELECT_ALL,
-            'q', Game.Action.QUIT,
-            '1', Game.Action.TOGGLE_1,
-            '2', Game.Action.TOGGLE_2,
-            '3', Game.Action.TOGGLE_3,
-            '4', Game.Action.TOGGLE_4,
-            '5', Game.Action.TOGGLE_5
-        );
+        actionKeys = new HashMap<>();
+        actionKeys.put('r', Game.Action.REROLL);
+        actionKeys.put('k', Game.Action.KEEP);
+        actionKeys.put('a', Game.Action.SELECT_ALL);
+        actionKeys.put('q', Game.Action.QUIT);
+        actionKeys.put('h', Game.Action.HINT);
+        for (int i = 0; i < Game.MAX_DICE; i++) {
+            actionKeys.put(getToggleKey(i), Game.Action.getToggle(i));
+        }
+    }
+
+    /**
+     * Returns the key toggling the die, 1-9 then 0 for the first ten dice and
+     * A-J for the next ten.
+     */
+    public static char getToggleKey(int die) {
+        return TOGGLE_KEYS.charAt(die);
     }
 
     public Map<Character, Game.Play> getPlayKeys() {
@@ -60,6 +90,45 @@ public class Controller {
         this.playKeys = playKeys;
     }
 
+    /**
+     * Sets the advisor used for hints and for the expected scores shown with each
+     * play, or null to disable them.
+     */
+    public void setAdvisor(Advisor advisor) {
+        this.advisor = advisor;
+    }
+
+    /**
+     * Stops the controller showing anything, for scripted games whose prompts
+     * nobody reads. Input is read as usual.
+     */
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /**
+     * Asks how many players there are and the name of each.
+     *
+     * @param maxPlayers the most players allowed
+     * @return the new players
+     */
+    public Player[] promptPlayers(int maxPlayers) {
+        int count = 0;
+        while (count < 1 || count > maxPlayers) {
+            String in = promptIn("How many players are there? (1-" + maxPlayers + "): ").trim();
+            try {
+                count = Integer.parseInt(in);
+            } catch (NumberFormatException e) {
+                count = 0;
+            }
+        }
+        Player[] players = new Player[count];
+        for (int i = 0; i < count; i++) {
+            players[i] = new Player(promptIn("What is player " + (i + 1) + "'s name? "));
+        }
+        return players;
+    }
+
     public Game.Play promptPlay(Player player, Dice dice) {
         return promptPlay(player, dice, playKeys, false);
     }
@@ -89,7 +158,7 @@ public class Controller {
             for (int i = 0; i < length; i++) {
                 char c = in.charAt(i);
                 if ('?' == c) {
-                    displayActions();
+                    displayActions(dice);
                     actions.clear();
                     break;
                 }
@@ -107,56 +176,152 @@ public class Controller {
         return actions;
     }
 
-    private void displayActions() {
+    private void displayActions(Dice dice) {
+        if (quiet) {
+            return;
+        }
         StringBuilder sb = new StringBuilder();
         for (Map.Entry<Character, Game.Action> entry : actionKeys.entrySet()) {
+            if (entry.getValue().getToggledDie() >= dice.getDice().size()) {
+                continue;
+            }
             sb.append(String.format("%s [%c] ", entry.getValue().name(), entry.getKey()));
         }
         displayln(sb.toString());
     }
 
+    public void displayHint(Player player, Dice dice, int rerolls) {
+        if (quiet) {
+            return;
+        }
+        if (null == advisor || dice.getHandIndex() < 0) {
+            displayEstimate(player, dice, rerolls);
+            return;
+        }
+        Advice advice = advisor.advise(player, dice, rerolls);
+        StringBuilder sb = new StringBuilder();
+        List<Advice.Hold> holds = advice.getHolds();
+        if (holds.isEmpty()) {
+            sb.append("No rerolls remaining, keep the dice\n");
+        }
+        final int HOLD_HINTS = 5;
+        for (int i = 0; i < Math.min(HOLD_HINTS, holds.size()); i++) {
+            Advice.Hold hold = holds.get(i);
+            sb.append(i == 0 ? "Best: " : "      ")
+                .append(DisplayUtil.pad(getHoldString(hold, dice), 20))
+                .append(String.format("EV %.2f", hold.getExpectedScore()))
+                .append('\n');
+        }
+        displayln(sb.toString());
+    }
+
+    /**
+     * Shows the sampled score of each open play after rerolling the dice set
+     * rolling, for dice or games the advisor has no table for.
+     */
+    private void displayEstimate(Player player, Dice dice, int rerolls) {
+        if (null == estimator) {
+            estimator = new RerollEstimator();
+        }
+        RerollEstimate estimate = estimator.estimate(player, dice, rerolls, HINT_BUDGET, HINT_WIDTH);
+        StringBuilder sb = new StringBuilder();
+        sb.append(rerolls == 0 || !dice.isAnyRolling() ? "Keeping the dice" : "Rerolling the selected dice")
+            .append(String.format(" (%d trials)\n", estimate.getTrials()));
+        final int PLAY_HINTS = 5;
+        List<Game.Play> plays = estimate.getPlays();
+        for (int i = 0; i < Math.min(PLAY_HINTS, plays.size()); i++) {
+            Game.Play play = plays.get(i);
+            sb.append(i == 0 ? "Best: " : "      ")
+                .append(DisplayUtil.pad(play.name(), 20))
+                .append(String.format("%.2f +/- %.2f", estimate.getMean(play), estimate.getMargin(play)))
+                .append('\n');
+        }
+        displayln(sb.toString());
+    }
+
+    private String getHoldString(Advice.Hold hold, Dice dice) {
+        int count = dice.getDice().size();
+        if (hold.getHeldMask() == (1 << count) - 1) {
+            return "keep all";
+        }
+        StringBuilder sb = new StringBuilder("hold");
+        for (int i = 0; i < count; i++) {
+            if (hold.isHeld(i)) {
+                sb.append(' ').append(i + 1);
+            }
+        }
+        return hold.getHeldMask() == 0 ? "reroll all" : sb.toString();
+    }
+
     private void displayPlays(Player player, Dice dice, Map<Character, Game.Play> plays, boolean isBonusYahtzee) {
+        if (quiet) {
+            return;
+        }
+        String choices = player.getName() + " please choose from:\n" + getPlayString(player, dice, plays, isBonusYahtzee);
+        if (null != screen) {
+            screen.set(Screen.Section.SCORECARD, player.toString());
+            displayDice(dice);
+            screen.set(Screen.Section.PLAYS, choices);
+            return;
+        }
         displayln("\n" + player.getScoreInfoString());
         displaynln("Final ");
         displayDice(dice);
-        displayln(player.getName() + " please choose from:\n" + getPlayString(player, dice, plays, isBonusYahtzee));
+        displayln(choices);
     }
 
     private String getPlayString(Player player, Dice dice, Map<Character, Game.Play> plays, boolean isBonusYahtzee) {
+        Advice advice = null == advisor || dice.getHandIndex() < 0 ? null
+            : advisor.advise(player, dice, 0, isBonusYahtzee);
         final StringBuilder sb = new StringBuilder();
         List<Map.Entry<Character, Game.Play>> entries =  plays.entrySet().stream().sorted(new YahtzeeEntryComparator())
             .collect(Collectors.toList());
         boolean lineAdded = false;
         final int LENGTH = 26;
+        RollAnalysis roll = dice.analyze();
         for (Map.Entry<Character, Game.Play> entry : entries) {
             if (!lineAdded && !entry.getValue().isUpper()) {
                 sb.append("-".repeat(LENGTH))
                     .append('\n');
                 lineAdded = true;
             }
-            sb.append(getPlayedString(entry, player, dice, isBonusYahtzee));
+            sb.append(getPlayedString(entry, player, roll, isBonusYahtzee, advice));
         }
         return sb.toString();
     }
 
-    private String getPlayedString(Map.Entry<Character, Game.Play> entry, Player player, Dice dice, boolean isBonusYahtzee) {
+    private String getPlayedString(Map.Entry<Character, Game.Play> entry, Player player, RollAnalysis roll,
+            boolean isBonusYahtzee, Advice advice) {
         final int pad = 15;
+        boolean canPlay = Game.canPlay(player, entry.getValue(), roll);
         return DisplayUtil.pad(entry.getValue().name(), pad)
                 + " [" + entry.getKey() + "] - "
-                + (Game.canPlay(player, entry.getValue(), dice) ? 
+                + (canPlay ? 
                     // only treat yahtzee scores as bonus yahtzee
-                    Scorer.score(entry.getValue(), player, dice, isBonusYahtzee) 
+                    Scorer.score(entry.getValue(), player, roll, isBonusYahtzee) 
                     : "X (" + player.getScore(entry.getValue()) + ")")
+                + (canPlay ? getExpectedScoreString(entry.getValue(), advice) : "")
                 + "\n";
     }
 
+    private String getExpectedScoreString(Game.Play play, Advice advice) {
+        if (null == advice || Double.isNaN(advice.getExpectedScore(play))) {
+            return "";
+        }
+        boolean isBest = advice.getBestPlay().getPlay() == play;
+        return String.format("  (EV %.2f)%s", advice.getExpectedScore(play), isBest ? " *" : "");
+    }
+
     public void displayDice(Dice dice) {
+        if (quiet) {
+            return;
+        }
         StringBuilder sb = new StringBuilder();
         List<Die> rolls = dice.getDice();
         sb.append("Rolls:\n");
         for (int i = 0; i < rolls.size(); i++) {
             Die die = rolls.get(i);
-            sb.append(i + 1)
+            sb.append(getToggleKey(i))
                 .append(": ")
                 .append(die.getFace());
             if (die.isRolling()) {
@@ -164,35 +329,135 @@ public class Controller {
             }
             sb.append("\n");
         }
+        if (null != screen) {
+            screen.set(Screen.Section.DICE, sb.toString());
+            return;
+        }
         displayln(sb.toString());
     }
 
+    public void displayTurn(Player player) {
+        if (quiet) {
+            return;
+        }
+        if (null != screen) {
+            screen.set(Screen.Section.SCORECARD, player.toString());
+            screen.clear(Screen.Section.PLAYS);
+            displayln("It is " + player.getName() + "'s turn");
+            return;
+        }
+        displayln("It is " + player.getName() + "'s turn\n\n" + player);
+    }
+
     public void display(String message) {
         displayln(message);
     }
 
+    /**
+     * Writes anything displayed since the last prompt.
+     */
+    public void flush() {
+        if (null != screen) {
+            screen.render("");
+            io.print("\n");
+        }
+        io.flush();
+    }
+
     private void displayln(String message) {
-        System.out.println(message);
+        if (quiet) {
+            return;
+        }
+        if (null != screen) {
+            if (messagesShown) {
+                screen.clear(Screen.Section.MESSAGES);
+                messagesShown = false;
+            }
+            screen.append(Screen.Section.MESSAGES, message);
+            return;
+        }
+        io.println(message);
     }
 
     private void displaynln(String message) {
-        System.out.print(message);
+        if (quiet) {
+            return;
+        }
+        io.print(message);
     }
 
     public void displayLeaderboard(Player[] players, Player current) {
-        Player[] sorted = new Player[players.length];
-        System.arraycopy(players, 0, sorted, 0, sorted.length);
-        Arrays.sort(sorted);
+        displayLeaderboard(new Leaderboard(players), current);
+    }
+
+    /**
+     * Displays the top LEADERBOARD_TOP players then the current player between
+     * LEADERBOARD_WINDOW players either side, or every player if there are
+     * hardly more than that.
+     *
+     * @param leaderboard the ranked players
+     * @param current the player to mark, or null
+     */
+    public void displayLeaderboard(Leaderboard leaderboard, Player current) {
+        if (quiet) {
+            return;
+        }
+        int size = leaderboard.size();
         StringBuilder builder = new StringBuilder();
         builder.append("\nLeaderboard:\n");
-        for (int i = 0; i < sorted.length; i++) {
-            Player player = sorted[i];
+        if (size <= LEADERBOARD_TOP + 2 * LEADERBOARD_WINDOW + 2 || null == current) {
+            appendRanks(builder, leaderboard, 0, Math.min(size, null == current ? LEADERBOARD_TOP : size), current);
+        } else {
+            int rank = leaderboard.getRank(current);
+            int from = Math.max(LEADERBOARD_TOP, rank - LEADERBOARD_WINDOW);
+            int to = Math.min(size, rank + LEADERBOARD_WINDOW + 1);
+            appendRanks(builder, leaderboard, 0, LEADERBOARD_TOP, current);
+            if (from > LEADERBOARD_TOP) {
+                builder.append("   ...\n");
+            }
+            appendRanks(builder, leaderboard, from, to, current);
+        }
+        if (size > LEADERBOARD_TOP + 2 * LEADERBOARD_WINDOW + 2) {
+            builder.append("   (" + size + " players)\n");
+        }
+        if (null != screen) {
+            screen.set(Screen.Section.LEADERBOARD, builder.toString());
+            return;
+        }
+        displayln(builder.toString());
+    }
+
+    private void appendRanks(StringBuilder builder, Leaderboard leaderboard, int from, int to, Player current) {
+        for (int i = from; i < to; i++) {
+            Player player = leaderboard.get(i);
             builder.append((i + 1) + ". " 
                 + (player.equals(current) ? "*" : " ") 
                 + String.format("%-" + Game.MAX_PLAYER_NAME + "s  %3d  ", player.getName(), player.score())
                     + " (" + player.getYahtzees() + " Yahtzees" 
                     + (player.hasUpperScoreBonus() ? ", upper score bonus)" : ")") + "\n");
         }
+    }
+
+    /**
+     * Displays the all time best scores, marking those of the players.
+     */
+    public void displayHighScores(List<ScoreStore.Entry> entries, Player[] players) {
+        if (quiet) {
+            return;
+        }
+        StringBuilder builder = new StringBuilder();
+        builder.append("\nAll-time high scores:\n");
+        for (int i = 0; i < entries.size(); i++) {
+            ScoreStore.Entry entry = entries.get(i);
+            boolean isPlayer = false;
+            for (Player player : players) {
+                isPlayer |= player.getName().equals(entry.getName());
+            }
+            builder.append(String.format("%3d. %s%-" + Game.MAX_PLAYER_NAME + "s  %3d  ", i + 1, isPlayer ? "*" : " ",
+                entry.getName(), entry.getScore())
+                + " (" + entry.getYahtzees() + " Yahtzees"
+                + (entry.hasUpperBonus() ? ", upper score bonus)" : ")") + "\n");
+        }
         displayln(builder.toString());
     }
 
@@ -214,8 +479,20 @@ public class Controller {
         promptIn("Press Enter to continue...");
     }
 
+    /**
+     * @throws NoSuchElementException if the input has ended
+     */
     private String promptIn(String prompt) {
-        displaynln(prompt);
-        return scanner.nextLine();
+        if (null != screen) {
+            screen.render(prompt);
+            messagesShown = true;
+        } else {
+            displaynln(prompt);
+        }
+        String line = io.readLine();
+        if (null == line) {
+            throw new NoSuchElementException("No input remaining");
+        }
+        return line;
     }
 }
@@ -1,10 +1,45 @@
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
 
 public class Dice {
+    // bulk rolls draw a byte per face, faces above this many sides use nextInt
+    private static final int MAX_BYTE_SIDES = 256;
+    // the largest face a byte buffer can hold
+    private static final int MAX_BYTE_FACE = 255;
+    // rolling dice with at most this many outcomes are rolled as a single chunk
+    private static final int MAX_OUTCOMES = 1 << 16;
+    private static final int BULK_HANDS = 256;
+    // outcome tables keyed by sides << 32 | count
+    private static final Map<Long, byte[]> OUTCOME_TABLES = new ConcurrentHashMap<>();
+    // face tables are shared by every dice, as a game creates dice every turn
+    private static final Map<Integer, byte[]> FACE_TABLES = new ConcurrentHashMap<>();
+    private static final int MAX_MASK_SIDES = Long.SIZE - 1;
+
     private final List<Die> dice;
+    private final RandomGenerator random;
     private final int largestDieSides;
+    private final boolean isStandard;
+    // maps a random byte to a face of each die, or 0 if the byte is rejected
+    private final byte[][] faceTables;
+    private byte[] bulkBuffer;
+    // the indexes of the rolling dice, filled by each rollInto
+    private int[] rolling;
+    // the outcome table of the last rollInto, kept as looking one up boxes its key
+    private byte[] outcomeTable;
+    private long outcomeTableKey = -1;
+    // faceCounts[f] dice show face f, and kindCounts[k] faces show on at least k
+    // dice, kept as each die changes so evaluating never rescans the dice
+    private final int[] faceCounts;
+    private final int[] kindCounts;
+    // bit f set while face f shows, for dice of up to MAX_MASK_SIDES sides
+    private long faceMask;
+    private int maxKind;
+    private int sum;
+    // the analysis of the current faces, dropped when a face changes
+    private RollAnalysis analysis;
 
     /**
      * A map with the mapping of number of sides to number of dice. For example,
@@ -19,6 +54,20 @@ public class Dice {
      * @param diceMap
      */
     public Dice(Map<Integer, Integer> diceMap) {
+        this(diceMap, RandomSource.create());
+    }
+
+    /**
+     * Creates the dice of the diceMap, all rolling with the given generator.
+     * 
+     * @param diceMap the number of dice of each number of sides
+     * @param random the generator shared by the dice
+     */
+    public Dice(Map<Integer, Integer> diceMap, RandomGenerator random) {
+        if (null == random) {
+            throw new NullPointerException("Dice random cannot be null");
+        }
+        this.random = random;
         dice = new ArrayList<>();
         int largestDieSides = -1;
         for (Map.Entry<Integer, Integer> entry : diceMap.entrySet()) {
@@ -28,10 +77,91 @@ public class Dice {
                 largestDieSides = sides;
             }
             for (int i = 0; i < diceCount ; i++) {
-                dice.add(new Die(sides));
+                dice.add(new Die(sides, random));
             }
         }
         this.largestDieSides = largestDieSides;
+        this.isStandard = dice.size() == Game.DICE_COUNT
+            && diceMap.size() == 1 && largestDieSides == Game.DICE_SIDES;
+        this.faceTables = createFaceTables(dice);
+        this.faceCounts = new int[Math.max(0, largestDieSides) + 1];
+        this.kindCounts = new int[dice.size() + 1];
+        for (Die die : dice) {
+            die.setOwner(this);
+            add(die.getFace());
+        }
+    }
+
+    /**
+     * Moves a die from one face to another in the counts, called by the die.
+     */
+    void faceChanged(int previous, int face) {
+        remove(previous);
+        add(face);
+        analysis = null;
+    }
+
+    /**
+     * Returns the analysis of the current faces, taken once per roll and shared
+     * until a face changes.
+     */
+    public RollAnalysis analyze() {
+        if (null == analysis) {
+            analysis = new RollAnalysis(this);
+        }
+        return analysis;
+    }
+
+    private void add(int face) {
+        int count = ++faceCounts[face];
+        kindCounts[count]++;
+        if (count > maxKind) {
+            maxKind = count;
+        }
+        if (count == 1 && face <= MAX_MASK_SIDES) {
+            faceMask |= 1L << face;
+        }
+        sum += face;
+    }
+
+    private void remove(int face) {
+        int count = faceCounts[face]--;
+        kindCounts[count]--;
+        if (count == maxKind && kindCounts[count] == 0) {
+            maxKind--;
+        }
+        if (count == 1 && face <= MAX_MASK_SIDES) {
+            faceMask &= ~(1L << face);
+        }
+        sum -= face;
+    }
+
+    private static byte[][] createFaceTables(List<Die> dice) {
+        byte[][] faceTables = new byte[dice.size()][];
+        for (int i = 0; i < faceTables.length; i++) {
+            int sides = dice.get(i).getSides();
+            if (sides <= MAX_BYTE_SIDES) {
+                faceTables[i] = FACE_TABLES.computeIfAbsent(sides, Dice::createFaceTable);
+            }
+        }
+        return faceTables;
+    }
+
+    /**
+     * Bytes below the largest multiple of sides map uniformly onto the faces, the
+     * rest are rejected so every face is equally likely.
+     */
+    private static byte[] createFaceTable(int sides) {
+        byte[] table = new byte[MAX_BYTE_SIDES];
+        int limit = MAX_BYTE_SIDES - MAX_BYTE_SIDES % sides;
+        for (int b = 0; b < limit; b++) {
+            table[b] = (byte) (b % sides + 1);
+        }
+        return table;
+    }
+
+    public RandomGenerator getRandom() {
+        return random;
     }
 
     public List<Die> getDice() {
@@ -46,6 +176,194 @@ public class Dice {
         return rolls;
     }
 
+    /**
+     * Rolls many hands at once into the buffer, without changing the faces of the
+     * dice. Hand h is written to buffer[offset + h * size() + i] for each die i,
+     * with held dice keeping their current face in every hand.
+     * 
+     * When the rolling dice share a number of sides, every outcome of the rolling
+     * dice is numbered and each hand is cut as a single chunk of bits from a 64-bit
+     * draw of the generator (four hands of five d6 per draw), then decoded through
+     * a table of outcomes. Chunks past the last outcome are rejected so every
+     * outcome is equally likely. Other dice cut a byte per face from each draw.
+     * 
+     * @param buffer the buffer to fill, holding faces as unsigned bytes
+     * @param offset the index of the first face written
+     * @param hands the number of hands to roll
+     * @throws IllegalStateException if a die has more faces than a byte can hold
+     */
+    public void rollInto(byte[] buffer, int offset, int hands) {
+        int size = dice.size();
+        if (largestDieSides > MAX_BYTE_FACE) {
+            throw new IllegalStateException("Cannot roll " + largestDieSides + " sided dice into bytes");
+        }
+        if (hands < 0 || offset < 0 || (long) offset + (long) hands * size > buffer.length) {
+            throw new IndexOutOfBoundsException("Buffer of length " + buffer.length + " cannot hold " + hands
+                + " hands from offset " + offset);
+        }
+        if (null == rolling) {
+            rolling = new int[size];
+        }
+        int rollingCount = 0;
+        int rollingSides = -1;
+        for (int i = 0; i < size; i++) {
+            Die die = dice.get(i);
+            if (die.isRolling()) {
+                rolling[rollingCount++] = i;
+                rollingSides = rollingSides == -1 || rollingSides == die.getSides() ? die.getSides() : 0;
+            }
+        }
+        // held faces never change, so write them once per hand up front
+        for (int i = 0; i < size; i++) {
+            Die die = dice.get(i);
+            if (!die.isRolling()) {
+                for (int index = offset + i; index < offset + hands * size; index += size) {
+                    buffer[index] = (byte) die.getFace();
+                }
+            }
+        }
+        if (rollingCount == 0) {
+            return;
+        }
+        long key = rollingSides > 0 ? outcomeKey(rollingSides, rollingCount) : -1;
+        if (key != outcomeTableKey) {
+            outcomeTable = key == -1 ? null : getOutcomeTable(rollingSides, rollingCount);
+            outcomeTableKey = key;
+        }
+        if (null == outcomeTable) {
+            rollFaces(buffer, offset, hands, rolling, rollingCount);
+        } else {
+            rollOutcomes(buffer, offset, hands, rolling, rollingCount, outcomeTable);
+        }
+    }
+
+    private void rollOutcomes(byte[] buffer, int offset, int hands, int[] rolling, int rollingCount,
+            byte[] outcomes) {
+        int size = dice.size();
+        int outcomeCount = outcomes.length / rollingCount;
+        int chunkBits = Integer.SIZE - Integer.numberOfLeadingZeros(outcomeCount - 1);
+        int chunkMask = (1 << chunkBits) - 1;
+        // one sided dice have a single outcome, written without drawing
+        int chunksPerDraw = chunkBits == 0 ? 0 : Long.SIZE / chunkBits;
+        boolean isContiguous = rollingCount == size;
+        long bits = 0;
+        int available = 0;
+        for (int h = 0, hand = offset; h < hands; h++, hand += size) {
+            int outcome = 0;
+            while (chunksPerDraw > 0) {
+                if (available == 0) {
+                    bits = random.nextLong();
+                    available = chunksPerDraw;
+                }
+                outcome = (int) bits & chunkMask;
+                bits >>>= chunkBits;
+                available--;
+                if (outcome < outcomeCount) {
+                    break;
+                }
+            }
+            int from = outcome * rollingCount;
+            if (isContiguous) {
+                System.arraycopy(outcomes, from, buffer, hand, size);
+            } else {
+                for (int i = 0; i < rollingCount; i++) {
+                    buffer[hand + rolling[i]] = outcomes[from + i];
+                }
+            }
+        }
+    }
+
+    private void rollFaces(byte[] buffer, int offset, int hands, int[] rolling, int rollingCount) {
+        int size = dice.size();
+        long bits = 0;
+        int available = 0;
+        for (int h = 0, hand = offset; h < hands; h++, hand += size) {
+            for (int i = 0; i < rollingCount; i++) {
+                int die = rolling[i];
+                byte[] table = faceTables[die];
+                int face;
+                if (null == table) {
+                    face = random.nextInt(dice.get(die).getSides()) + 1;
+                } else {
+                    do {
+                        if (available == 0) {
+                            bits = random.nextLong();
+                            available = Long.BYTES;
+                        }
+                        face = table[(int) bits & 0xFF];
+                        bits >>>= Byte.SIZE;
+                        available--;
+                    } while (face == 0);
+                }
+                buffer[hand + die] = (byte) face;
+            }
+        }
+    }
+
+    /**
+     * Rolls many hands at once into the buffer, as rollInto(byte[], int, int).
+     * Dice with more sides than a byte can hold are rolled a face at a time.
+     */
+    public void rollInto(int[] buffer, int offset, int hands) {
+        int size = dice.size();
+        if (hands < 0 || offset < 0 || (long) offset + (long) hands * size > buffer.length) {
+            throw new IndexOutOfBoundsException("Buffer of length " + buffer.length + " cannot hold " + hands
+                + " hands from offset " + offset);
+        }
+        if (largestDieSides > MAX_BYTE_FACE) {
+            for (int h = 0, hand = offset; h < hands; h++, hand += size) {
+                for (int i = 0; i < size; i++) {
+                    Die die = dice.get(i);
+                    buffer[hand + i] = die.isRolling() ? random.nextInt(die.getSides()) + 1 : die.getFace();
+                }
+            }
+            return;
+        }
+        if (null == bulkBuffer) {
+            bulkBuffer = new byte[BULK_HANDS * size];
+        }
+        for (int rolled = 0; rolled < hands; rolled += BULK_HANDS) {
+            int block = Math.min(BULK_HANDS, hands - rolled);
+            rollInto(bulkBuffer, 0, block);
+            int start = offset + rolled * size;
+            for (int i = 0; i < block * size; i++) {
+                buffer[start + i] = bulkBuffer[i] & 0xFF;
+            }
+        }
+    }
+
+    /**
+     * Returns every outcome of rolling count dice of the sides, in order, or null
+     * if there are too many outcomes to table.
+     */
+    private static byte[] getOutcomeTable(int sides, int count) {
+        long outcomeCount = 1;
+        for (int i = 0; i < count; i++) {
+            outcomeCount *= sides;
+            if (outcomeCount > MAX_OUTCOMES) {
+                return null;
+            }
+        }
+        return OUTCOME_TABLES.computeIfAbsent(outcomeKey(sides, count), key -> createOutcomeTable(sides, count));
+    }
+
+    private static long outcomeKey(int sides, int count) {
+        return (long) sides << 32 | count;
+    }
+
+    private static byte[] createOutcomeTable(int sides, int count) {
+        int outcomeCount = (int) Math.round(Math.pow(sides, count));
+        byte[] outcomes = new byte[outcomeCount * count];
+        for (int outcome = 0; outcome < outcomeCount; outcome++) {
+            int remaining = outcome;
+            for (int i = 0; i < count; i++) {
+                outcomes[outcome * count + i] = (byte) (remaining % sides + 1);
+                remaining /= sides;
+            }
+        }
+        return outcomes;
+    }
+
     public boolean isAnyRolling() {
         for (Die die : dice) {
             if (die.isRolling()) {
@@ -61,12 +379,85 @@ public class Dice {
         }
     }
 
+    /**
+     * Returns the current face of each die, in dice order.
+     */
+    public int[] getFaces() {
+        int[] faces = new int[dice.size()];
+        for (int i = 0; i < faces.length; i++) {
+            faces[i] = dice.get(i).getFace();
+        }
+        return faces;
+    }
+
     public int sumAll() {
-        int sum = 0;
+        return sum;
+    }
+
+    /**
+     * Returns the number of dice showing the face.
+     */
+    public int getFaceCount(int face) {
+        return face < 1 || face >= faceCounts.length ? 0 : faceCounts[face];
+    }
+
+    /**
+     * Returns the number of faces showing on at least kind dice, so a full house
+     * has a face of kind 3 and another of kind 2.
+     */
+    public int getKindCount(int kind) {
+        if (kind < 1) {
+            throw new IllegalArgumentException("Kind must be at least one die");
+        }
+        return kind < kindCounts.length ? kindCounts[kind] : 0;
+    }
+
+    /**
+     * Returns the most dice showing a single face.
+     */
+    public int getMaxKind() {
+        return maxKind;
+    }
+
+    /**
+     * Returns the length of the longest run of consecutive faces showing.
+     */
+    public int getLongestStraight() {
+        if (faceCounts.length - 1 <= MAX_MASK_SIDES) {
+            int length = 0;
+            for (long run = faceMask; run != 0; run &= run >>> 1) {
+                length++;
+            }
+            return length;
+        }
+        int longest = 0;
+        int run = 0;
+        for (int face = 1; face < faceCounts.length; face++) {
+            run = faceCounts[face] > 0 ? run + 1 : 0;
+            longest = Math.max(longest, run);
+        }
+        return longest;
+    }
+
+    /**
+     * Returns the canonical HandIndex of the current faces, or -1 if these are not
+     * standard dice.
+     * 
+     * @return the hand index or -1
+     */
+    public int getHandIndex() {
+        if (!isStandard) {
+            return -1;
+        }
+        int key = 0;
         for (Die die : dice) {
-            sum += die.getFace();
+            int face = die.getFace();
+            if (face < 1 || face > Game.DICE_SIDES) {
+                return -1;
+            }
+            key += HandIndex.getKeyWeight(face);
         }
-        return sum;
+        return HandIndex.indexOfKey(key);
     }
 
     public int getMaxDieSides() {
@@ -1,23 +1,37 @@
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class Die {
-    private static Random rand = new Random();
-
+    private final RandomGenerator random;
     private final int sides;
     private int face;
     private boolean isRolling = true;
+    // the dice counting this die's face, told of every change to it
+    private Dice owner;
 
     public Die(int sides) {
+        this(sides, RandomSource.create());
+    }
+
+    /**
+     * @param sides the number of sides
+     * @param random the generator to roll with, which may be shared by the dice of
+     * a single thread
+     */
+    public Die(int sides, RandomGenerator random) {
         if (sides <= 0) {
             throw new IllegalArgumentException("Cannot create die with less than one side");
         }
+        if (null == random) {
+            throw new NullPointerException("Die random cannot be null");
+        }
+        this.random = random;
         this.sides = sides;
         face = roll();
     }
 
     public int roll() {
         if (isRolling) {
-            face = rand.nextInt(sides) + 1;
+            changeFace(random.nextInt(sides) + 1);
         }
         return face;
     }
@@ -27,7 +41,25 @@ public class Die {
     }
 
     public void setFace(int face) {
+        if (face < 1 || face > sides) {
+            throw new IllegalArgumentException("A " + sides + " sided die cannot show " + face);
+        }
+        changeFace(face);
+    }
+
+    private void changeFace(int face) {
+        int previous = this.face;
         this.face = face;
+        if (null != owner && previous != face) {
+            owner.faceChanged(previous, face);
+        }
+    }
+
+    void setOwner(Dice owner) {
+        if (null != this.owner && owner != this.owner) {
+            throw new IllegalStateException("Die already belongs to other dice");
+        }
+        this.owner = owner;
     }
 
     public int getSides() {
@@ -5,6 +5,7 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.random.RandomGenerator;
 
 public class Game {
 
@@ -17,8 +18,16 @@ public class Game {
 	public static final int DICE_COUNT = 5;
 	public static final int DICE_SIDES = 6;
 	public static final int MAX_PLAYER_NAME = 10;
+	public static final int MAX_DICE = 20;
 
 	private static final Play[] sortedPlays;
+	// Play.values() copies the array on every call
+	private static final Play[] PLAYS = Play.values();
+	private static final List<Play> PLAY_LIST = List.of(PLAYS);
+	private static final List<List<Play>> BONUS_YAHTZEE_GROUPS = List.of(
+		List.of(Play.KIND_3, Play.KIND_4),
+		List.of(Play.CHANCE, Play.STRAIGHT_4, Play.STRAIGHT_5, Play.FULL_HOUSE),
+		getUpperPlays());
 
 	static {
 		Play[] values = Play.values();
@@ -48,27 +57,156 @@ public class Game {
 	}
 
 	public enum Action {
-		REROLL, KEEP, SELECT_ALL, QUIT, TOGGLE_1, TOGGLE_2, TOGGLE_3, TOGGLE_4, TOGGLE_5
+		REROLL, KEEP, SELECT_ALL, QUIT, HINT, TOGGLE_1, TOGGLE_2, TOGGLE_3, TOGGLE_4, TOGGLE_5,
+		TOGGLE_6, TOGGLE_7, TOGGLE_8, TOGGLE_9, TOGGLE_10, TOGGLE_11, TOGGLE_12, TOGGLE_13, TOGGLE_14,
+		TOGGLE_15, TOGGLE_16, TOGGLE_17, TOGGLE_18, TOGGLE_19, TOGGLE_20;
+
+		/**
+		 * Returns the index of the die a toggle action toggles, or -1 for other
+		 * actions.
+		 */
+		public int getToggledDie() {
+			return ordinal() >= TOGGLE_1.ordinal() ? ordinal() - TOGGLE_1.ordinal() : -1;
+		}
+
+		public static Action getToggle(int die) {
+			if (die < 0 || die >= MAX_DICE) {
+				throw new IllegalArgumentException("There is no toggle for die " + die);
+			}
+			return values()[TOGGLE_1.ordinal() + die];
+		}
 	}
 
 	private Controller controller;
+	private final RandomGenerator random;
+	private final Map<Integer, Integer> diceMap;
+	// a duplicate game rolls each round from a stream of its own, see Game(Controller, long, Map)
+	private final boolean isDuplicate;
+	private final long roundSeed;
+	private boolean quit;
+	private Leaderboard leaderboard;
+	private final List<GameListener> listeners = new ArrayList<>();
 
 	public Game(Controller controller) {
+		this(controller, RandomSource.create());
+	}
+
+	/**
+	 * @param controller the controller to interact with the players through
+	 * @param random the generator every die of the game is rolled with
+	 */
+	public Game(Controller controller, RandomGenerator random) {
+		this(controller, random, Map.of(DICE_SIDES, DICE_COUNT));
+	}
+
+	/**
+	 * @param controller the controller to interact with the players through
+	 * @param random the generator every die of the game is rolled with
+	 * @param diceMap the number of dice of each number of sides rolled each turn,
+	 * as for Dice, at most MAX_DICE in all
+	 */
+	public Game(Controller controller, RandomGenerator random, Map<Integer, Integer> diceMap) {
+		this(controller, random, diceMap, false, 0);
+	}
+
+	/**
+	 * Creates a duplicate game, in which every player rolls the same stream of
+	 * dice in each round. Players making the same decisions face the same dice, so
+	 * the game compares the players' decisions rather than their luck.
+	 *
+	 * @param controller the controller to interact with the players through
+	 * @param roundSeed the seed the stream of every round is derived from
+	 * @param diceMap the number of dice of each number of sides rolled each turn
+	 */
+	public Game(Controller controller, long roundSeed, Map<Integer, Integer> diceMap) {
+		this(controller, null, diceMap, true, roundSeed);
+	}
+
+	private Game(Controller controller, RandomGenerator random, Map<Integer, Integer> diceMap,
+			boolean isDuplicate, long roundSeed) {
+		int count = 0;
+		for (Map.Entry<Integer, Integer> entry : diceMap.entrySet()) {
+			if (entry.getKey() < 1 || entry.getValue() < 0) {
+				throw new IllegalArgumentException(entry.getValue() + " dice of " + entry.getKey() + " sides");
+			}
+			count += entry.getValue();
+		}
+		if (count < 1 || count > MAX_DICE) {
+			throw new IllegalArgumentException("Game must roll between 1 and " + MAX_DICE + " dice, not " + count);
+		}
 		this.controller = controller;
+		this.random = random;
+		this.diceMap = Map.copyOf(diceMap);
+		this.isDuplicate = isDuplicate;
+		this.roundSeed = roundSeed;
 	}
 	
+	public void addListener(GameListener listener) {
+		if (null == listener) {
+			throw new NullPointerException("Game listener cannot be null");
+		}
+		listeners.add(listener);
+	}
+
 	public static Play[] getSortedPlays() {
 		return sortedPlays;
 	}
 
+	/**
+	 * Returns the groups of plays, in order, from which the slot filled alongside
+	 * a bonus yahtzee is chosen once the corresponding upper section is scored.
+	 */
+	public static List<List<Play>> getBonusYahtzeeGroups() {
+		return BONUS_YAHTZEE_GROUPS;
+	}
+
+	/**
+	 * Plays the game to its end or until a player quits. Only this game ends on
+	 * a quit, so other games sharing the process carry on.
+	 */
 	public void start(Player[] players) {
+		start(players, 0);
+	}
+
+	/**
+	 * Plays the game from the given turn, the players having already played every
+	 * turn before it, such as when resuming a game from a GameJournal.
+	 *
+	 * @param players the players in turn order
+	 * @param firstTurn the number of turns already played
+	 */
+	public void start(Player[] players, int firstTurn) {
+		if (firstTurn < 0 || firstTurn > ROUNDS * players.length) {
+			throw new IllegalArgumentException("Turn " + firstTurn + " is not a turn of the game");
+		}
+		leaderboard = new Leaderboard(players);
+		for (GameListener listener : listeners) {
+			listener.gameStarted(players, firstTurn);
+		}
 		// Game Loop
 		Player current = null;
-		for (int i = 0; i < (ROUNDS*players.length); i++) {
+		for (int i = firstTurn; i < (ROUNDS*players.length); i++) {
 			current = players[i % players.length];
-			controller.displayLeaderboard(players, current);
-			controller.display("It is " + current.getName() + "'s turn\n\n" + current);
-			playerRound(current);
+			for (GameListener listener : listeners) {
+				listener.turnStarted(i, current);
+			}
+			controller.displayLeaderboard(leaderboard, current);
+			controller.displayTurn(current);
+			playerRound(current, i / players.length);
+			if (quit) {
+				for (GameListener listener : listeners) {
+					listener.gameEnded(players, true);
+				}
+				controller.display(current.getName() + " quit the game");
+				controller.flush();
+				return;
+			}
+			for (GameListener listener : listeners) {
+				listener.turnEnded(i, current);
+			}
+		}
+		for (GameListener listener : listeners) {
+			listener.gameEnded(players, false);
 		}
 		// Display game end
 		int max = -1;
@@ -90,7 +228,7 @@ public class Game {
 				wIndex++;
 			}
 		}
-		controller.displayLeaderboard(players, null);
+		controller.displayLeaderboard(leaderboard, null);
 		StringBuilder builder = new StringBuilder();
 		if (players.length > 1) {
 			printWinner(builder, winners, wIndex, max);
@@ -98,6 +236,7 @@ public class Game {
 			builder.append("Thanks for playing " + winners[0].getName() + ", your total score was " + max);
 		}
 		controller.display("\n" + builder.toString());
+		controller.flush();
 	}
 
 	private void printWinner(StringBuilder builder, Player[] winners, int wIndex, int max) {
@@ -113,10 +252,11 @@ public class Game {
 		builder.append("Congratulations!");
 	}
 
-	private void playerRound(Player player) {
-		Dice dice = new Dice(Map.of(DICE_SIDES, DICE_COUNT));
+	private void playerRound(Player player, int round) {
+		Dice dice = new Dice(diceMap, isDuplicate ? RandomSource.forGame(roundSeed, round) : random);
 		controller.display("Rolling dice...");
 		dice.roll();
+		fireDiceRolled(player, dice);
 		dice.setAllIsRolling(false);
 		int rerolls = 2;
 		boolean rolling = true;
@@ -125,38 +265,37 @@ public class Game {
 			controller.display("There are " + rerolls + " rerolls remaining");
 			List<Action> actions = controller.promptAction(player, dice);
 			for (Action action : actions) {
+				for (GameListener listener : listeners) {
+					listener.actionTaken(player, action);
+				}
 				switch (action) {
 					case KEEP:
 						rolling = false;
 						break;
 					case QUIT:
-						System.exit(0);
-						break;
+						quit = true;
+						return;
 					case REROLL:
-						rerolls = reroll(dice, rerolls);
+						rerolls = reroll(player, dice, rerolls);
 						// reset dice reroll after rerolling 
 						dice.setAllIsRolling(false);
 						break;
 					case SELECT_ALL:
 						dice.setAllIsRolling(true);
 						break;
-					case TOGGLE_1:
-						dice.getDice().get(0).toggleRolling();;
-						break;
-					case TOGGLE_2:
-						dice.getDice().get(1).toggleRolling();;
-						break;
-					case TOGGLE_3:
-						dice.getDice().get(2).toggleRolling();;
-						break;
-					case TOGGLE_4:
-						dice.getDice().get(3).toggleRolling();;
-						break;
-					case TOGGLE_5:
-						dice.getDice().get(4).toggleRolling();;
+					case HINT:
+						controller.displayHint(player, dice, rerolls);
 						break;
 					default:
-						throw new NoSuchElementException("Unrecognized Action: " + action);
+						int die = action.getToggledDie();
+						if (die < 0) {
+							throw new NoSuchElementException("Unrecognized Action: " + action);
+						}
+						if (die < dice.getDice().size()) {
+							dice.getDice().get(die).toggleRolling();
+						} else {
+							controller.display("There is no die " + (die + 1));
+						}
 				}
 				if (!rolling) {
 					break;
@@ -199,11 +338,19 @@ public class Game {
 	 * @return
 	 */
 	public static Play getUpperScorePlayFromDice(int dice) {
-		if (dice < 0 || dice > 5) {
+		if (dice < 1 || dice > DICE_SIDES) {
 			throw new IllegalArgumentException("Dice is out of upper index range");
 		}
-		Play[] plays = Play.values();
-		return plays[dice - 1];
+		return PLAYS[dice - 1];
+	}
+
+	/**
+	 * Returns the upper play of the face of a yahtzee, or null if the dice show a
+	 * face with no upper play.
+	 */
+	private static Play getUpperScorePlay(Dice rolls) {
+		int face = rolls.analyze().getYahtzeeFace();
+		return face >= 1 && face <= DICE_SIDES ? getUpperScorePlayFromDice(face) : null;
 	}
 
 	private void play(Player player, Dice dice) {
@@ -215,7 +362,25 @@ public class Game {
 				// fill a slot in addition to playing the bonus yahtzee
 				playBonusYahtzee(player, dice);
 			}
-			player.play(play, score);
+			score(player, play, score);
+		}
+	}
+
+	private void score(Player player, Play play, int score) {
+		player.play(play, score);
+		leaderboard.update(player);
+		for (GameListener listener : listeners) {
+			listener.played(player, play, score);
+		}
+	}
+
+	private void fireDiceRolled(Player player, Dice dice) {
+		if (listeners.isEmpty()) {
+			return;
+		}
+		int[] faces = dice.getFaces();
+		for (GameListener listener : listeners) {
+			listener.diceRolled(player, faces);
 		}
 	}
 
@@ -230,50 +395,74 @@ public class Game {
 	 * @param player
 	 * @param rolls
 	 */
-	private boolean playBonusYahtzee(Player player, Dice rolls) {
-		return chooseBonusYahtzeeUpperSection(player, rolls)
-		|| chooseBonusYahtzeeKind(player, rolls)
-		|| chooseBonusYahtzeeStealCombo(player, rolls)
-		|| chooseBonusYahtzeeUpperSectionToZero(player, rolls);
-	}
-
-	private boolean chooseBonusYahtzeeUpperSectionToZero(Player player, Dice rolls) {
-		List<Play> plays = getUpperPlays();
-		boolean played = playAvailable(player, rolls, plays);
-		if (!played) {
+	private void playBonusYahtzee(Player player, Dice rolls) {
+		List<Play> plays = getBonusYahtzeePlays(player, rolls);
+		if (plays.isEmpty()) {
 			throw new IllegalStateException("There was no valid play for the bonus yahtzee");
 		}
-		return true;
+		Play upper = getUpperScorePlay(rolls);
+		if (null != upper && plays.contains(upper)) {
+			controller.display("Automatically filling corresponding Upper section " + upper.name());
+			score(player, upper, Scorer.score(upper, player, rolls, true));
+			controller.waitOnEnter();
+		} else {
+			Play play = getPlayablePlay(player, rolls, createKeyMapFromPlays(plays), true);
+			score(player, play, Scorer.score(play, player, rolls, true));
+		}
 	}
 
-	private List<Play> getUpperPlays() {
-		Play[] plays = Play.values();
-		List<Play> upperPlays = new ArrayList<>();
-		for (Play play : plays) {
-			if (play.isUpper) {
-				upperPlays.add(play);
+	/**
+	 * Returns the plays that may be filled alongside a bonus yahtzee, following
+	 * the order described in playBonusYahtzee. Only the first group with an open
+	 * play is returned, so the corresponding upper section is returned alone.
+	 * 
+	 * @param player the player scoring the bonus yahtzee
+	 * @param rolls the yahtzee dice
+	 * @return the open plays of the first available group, empty if none are open
+	 */
+	public static List<Play> getBonusYahtzeePlays(Player player, Dice rolls) {
+		Play upper = getUpperScorePlay(rolls);
+		if (null != upper && canPlay(player, upper, rolls)) {
+			return List.of(upper);
+		}
+		for (List<Play> group : BONUS_YAHTZEE_GROUPS) {
+			List<Play> available = getAvailablePlays(group, player, rolls);
+			if (!available.isEmpty()) {
+				return available;
 			}
 		}
-		return upperPlays;
+		return List.of();
 	}
 
-	private boolean chooseBonusYahtzeeStealCombo(Player player, Dice rolls) {
-		List<Play> plays = List.of(Play.CHANCE, Play.STRAIGHT_4, Play.STRAIGHT_5, Play.FULL_HOUSE);
-		return playAvailable(player, rolls, plays);
+	/**
+	 * Returns every play the player can currently fill with the dice.
+	 * 
+	 * @param player the player to check
+	 * @param dice the final dice of the round
+	 * @return the playable plays in Play order
+	 */
+	public static List<Play> getPlayablePlays(Player player, Dice dice) {
+		return getAvailablePlays(PLAY_LIST, player, dice);
 	}
 
-	private boolean chooseBonusYahtzeeKind(Player player, Dice rolls) {
-		List<Play> plays = List.of(Play.KIND_3, Play.KIND_4);
-		return playAvailable(player, rolls, plays);
+	private static List<Play> getAvailablePlays(List<Play> plays, Player player, Dice dice) {
+		List<Play> available = new ArrayList<>();
+		for (Play play : plays) {
+			if (canPlay(player, play, dice)) {
+				available.add(play);
+			}
+		}
+		return available;
 	}
 
-	private boolean playAvailable(Player player, Dice rolls, List<Play> plays) {
-		boolean isAvailable = isAnyPlayAvailable(plays, player, rolls);
-		if (isAvailable) {
-			Play play = getPlayablePlay(player, rolls, createKeyMapFromPlays(plays), true);
-			player.play(play, Scorer.score(play, player, rolls, true));
+	private static List<Play> getUpperPlays() {
+		List<Play> upperPlays = new ArrayList<>();
+		for (Play play : PLAYS) {
+			if (play.isUpper) {
+				upperPlays.add(play);
+			}
 		}
-		return isAvailable;
+		return upperPlays;
 	}
 
 	private Map<Character, Play> createKeyMapFromPlays(List<Play> plays) {
@@ -284,26 +473,6 @@ public class Game {
 		return map;
 	}
 
-	private boolean isAnyPlayAvailable(List<Play> plays, Player player, Dice dice) {
-		for (Play play : plays) {
-			if (canPlay(player, play, dice)) {
-				return true;
-			}
-		}
-		return false;
-	}
-
-	private boolean chooseBonusYahtzeeUpperSection(Player player, Dice rolls) {
-		Play play = getUpperScorePlayFromDice(rolls.getDice().get(0).getFace());
-		if (canPlay(player, play, rolls)) {
-			controller.display("Automatically filling corresponding Upper section " + play.name());
-			player.play(play, Scorer.score(play, player, rolls, true));
-			controller.waitOnEnter();
-			return true;
-		}
-		return false;
-	}
-
 	private Play getPlayablePlay(Player player, Dice rolls) {
 		return getPlayablePlay(player, rolls, controller.getPlayKeys(), false);
 	}
@@ -323,23 +492,33 @@ public class Game {
 		return controller.confirm("Are you sure you want to fill the " + play.name() + " slot with " + score + "?");
 	}
 
+	/**
+	 * Returns true if every die shows the same face, however many dice there are.
+	 */
 	public static boolean isYahtzee(Dice dice) {
-		DiceEvaluator evaluator = new DiceEvaluator();
-		return evaluator.isKind(dice, Game.DICE_COUNT);
+		return dice.analyze().isYahtzee();
 	}
 
 	public static boolean canPlay(Player player, Play play, Dice dice) {
-		if (Play.YAHTZEE == play && (!player.isScored(play) || (player.hadYahtzee() && isYahtzee(dice)))) {
+		return canPlay(player, play, dice.analyze());
+	}
+
+	/**
+	 * Returns true if the player can fill the play with the analysed roll.
+	 */
+	public static boolean canPlay(Player player, Play play, RollAnalysis roll) {
+		if (Play.YAHTZEE == play && (!player.isScored(play) || (player.hadYahtzee() && roll.isYahtzee()))) {
 			return true;
 		}
 		return !player.isScored(play);
 	}
 
-	private int reroll(Dice dice, int rerolls) {
+	private int reroll(Player player, Dice dice, int rerolls) {
 		if (dice.isAnyRolling()) {
 			if (rerolls > 0) {
 				rerolls--;
 				dice.roll();
+				fireDiceRolled(player, dice);
 			} else {
 				controller.display("Cannot reroll, out of rerolls.");
 			}
@@ -0,0 +1,533 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A compact file of completed scorecards, and optionally the rolls of each
+ * game, stored in column blocks for fast sequential scans.
+ *
+ * The file is a header followed by blocks of up to BLOCK_GAMES games. Each block
+ * holds one column per Play score and one of the filled slots of each game,
+ * then with rolls the number of rolls of each round and every roll. The bonus
+ * yahtzees and upper bonus of a game follow from its scores, so are derived as
+ * a block is read rather than stored.
+ *
+ * A column is frame of reference bit packed: its minimum and the greatest
+ * common divisor of its offsets from the minimum are varints, and each value is
+ * stored as (value - min) / divisor in just enough bits for the largest. A slot
+ * such as STRAIGHT_5, either 0 or 40, takes 1 bit a game, and a column of a
+ * single value takes none. Values do not straddle words: with n words in a
+ * column, value i is in slot i / n of word i % n, so decoding reads one slot of
+ * every word per pass.
+ *
+ * A roll is the faces of every die as one base sides number, 13 bits for the
+ * standard dice.
+ */
+public class GameArchive {
+
+	public static final int MAGIC = 0x31415947;
+	public static final int VERSION = 1;
+	public static final int BLOCK_GAMES = 4096;
+
+	static final int PLAYS = Game.Play.values().length;
+	static final int FILLED = PLAYS;
+	static final int ROUND_ROLLS = PLAYS + 1;
+	static final int HEADER_SIZE = 16;
+	static final int BLOCK_HEADER_SIZE = 8;
+
+	// bits of the roll count of each round in the ROUND_ROLLS column
+	private static final int ROUND_ROLL_BITS = 2;
+	private static final int MAX_ROUND_ROLLS = (1 << ROUND_ROLL_BITS) - 1;
+	private static final int MAX_VARINT_SIZE = 5;
+
+	private GameArchive() {
+	}
+
+	public static Writer create(Path path, boolean withRolls) throws IOException {
+		return new Writer(path, withRolls);
+	}
+
+	public static Reader open(Path path) throws IOException {
+		return new Reader(path);
+	}
+
+	/**
+	 * Appends games to a new archive. Games are added under the writer's lock, so
+	 * a writer may be shared by simulation workers.
+	 */
+	public static class Writer implements Closeable {
+
+		private final FileChannel channel;
+		private final boolean withRolls;
+		private final int[][] columns;
+		private int[] rolls = new int[BLOCK_GAMES * Game.ROUNDS];
+		private int rollCount;
+		private int games;
+		private ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+		private Writer(Path path, boolean withRolls) throws IOException {
+			this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+			this.withRolls = withRolls;
+			this.columns = new int[withRolls ? ROUND_ROLLS + 1 : ROUND_ROLLS][BLOCK_GAMES];
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+				.putInt(MAGIC)
+				.putInt(VERSION)
+				.putInt(withRolls ? 1 : 0)
+				.putInt(BLOCK_GAMES)
+				.flip();
+			while (header.hasRemaining()) {
+				channel.write(header);
+			}
+		}
+
+		public boolean hasRolls() {
+			return withRolls;
+		}
+
+		public void add(Player player) throws IOException {
+			add(player, null);
+		}
+
+		/**
+		 * @param player the player of a finished game
+		 * @param recorder the rolls of the game, or null to store none
+		 */
+		public synchronized void add(Player player, RollRecorder recorder) throws IOException {
+			int filled = 0;
+			for (Game.Play play : Game.Play.values()) {
+				columns[play.ordinal()][games] = player.getScore(play);
+				filled |= player.isScored(play) ? 1 << play.ordinal() : 0;
+			}
+			columns[FILLED][games] = filled;
+			if (withRolls) {
+				int roundRolls = 0;
+				if (null != recorder) {
+					roundRolls = recorder.getRoundRolls();
+					if (rollCount + recorder.getCount() > rolls.length) {
+						rolls = Arrays.copyOf(rolls, Math.max(rolls.length * 2, rollCount + recorder.getCount()));
+					}
+					System.arraycopy(recorder.getCodes(), 0, rolls, rollCount, recorder.getCount());
+					rollCount += recorder.getCount();
+				}
+				columns[ROUND_ROLLS][games] = roundRolls;
+			}
+			if (++games == BLOCK_GAMES) {
+				writeBlock();
+			}
+		}
+
+		private void writeBlock() throws IOException {
+			int bound = BLOCK_HEADER_SIZE + columns.length * getColumnBound(games)
+				+ MAX_VARINT_SIZE + getColumnBound(rollCount);
+			if (buffer.capacity() < bound) {
+				buffer = ByteBuffer.allocate(bound).order(ByteOrder.LITTLE_ENDIAN);
+			}
+			buffer.clear();
+			buffer.position(BLOCK_HEADER_SIZE);
+			for (int[] column : columns) {
+				encode(buffer, column, games);
+			}
+			if (withRolls) {
+				putVarint(buffer, rollCount);
+				encode(buffer, rolls, rollCount);
+			}
+			buffer.putInt(0, games).putInt(4, buffer.position() - BLOCK_HEADER_SIZE);
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			games = 0;
+			rollCount = 0;
+		}
+
+		@Override
+		public synchronized void close() throws IOException {
+			try (channel) {
+				if (games > 0) {
+					writeBlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads an archive one block at a time, decoding each into the same Block.
+	 */
+	public static class Reader implements Closeable {
+
+		private final FileChannel channel;
+		private final boolean withRolls;
+		private final Block block;
+		private ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+		private long[] words = new long[BLOCK_GAMES / 2];
+
+		private Reader(Path path) throws IOException {
+			this.channel = FileChannel.open(path, StandardOpenOption.READ);
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			try {
+				readFully(header);
+			} catch (EOFException e) {
+				channel.close();
+				throw new IOException(path + " is not a game archive");
+			}
+			if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+				channel.close();
+				throw new IOException(path + " is not a game archive of version " + VERSION);
+			}
+			this.withRolls = header.getInt(8) != 0;
+			this.block = new Block(header.getInt(12), withRolls);
+		}
+
+		public boolean hasRolls() {
+			return withRolls;
+		}
+
+		/**
+		 * Decodes the next block.
+		 *
+		 * @return the block, reused by the next call, or null at the end of the archive
+		 */
+		public Block next() throws IOException {
+			buffer.clear().limit(BLOCK_HEADER_SIZE);
+			if (channel.read(buffer) <= 0) {
+				return null;
+			}
+			readFully(buffer);
+			int games = buffer.getInt(0);
+			int length = buffer.getInt(4);
+			if (games < 0 || games > block.capacity() || length < 0) {
+				throw new IOException("Corrupt game archive block at " + (channel.position() - BLOCK_HEADER_SIZE));
+			}
+			if (buffer.capacity() < length) {
+				buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+			}
+			buffer.clear().limit(length);
+			readFully(buffer);
+			buffer.flip();
+			block.size = games;
+			for (int[] column : block.columns) {
+				decode(column, games);
+			}
+			block.derive();
+			if (withRolls) {
+				int rollCount = getVarint(buffer);
+				if (block.rolls.length < rollCount) {
+					block.rolls = new int[rollCount];
+				}
+				decode(block.rolls, rollCount);
+				block.index();
+			}
+			return block;
+		}
+
+		private void decode(int[] values, int count) throws IOException {
+			int bits = buffer.get();
+			int min = getVarint(buffer);
+			if (0 == bits) {
+				Arrays.fill(values, 0, count, min);
+				return;
+			}
+			int divisor = getVarint(buffer);
+			int perWord = Long.SIZE / bits;
+			int wordCount = (count + perWord - 1) / perWord;
+			if (words.length < wordCount) {
+				words = new long[wordCount];
+			}
+			buffer.asLongBuffer().get(words, 0, wordCount);
+			buffer.position(buffer.position() + wordCount * Long.BYTES);
+			long mask = (1L << bits) - 1;
+			// each pass reads the next slot of every word, a straight loop the JIT unrolls
+			for (int base = 0, shift = 0; base < count; base += wordCount, shift += bits) {
+				int end = Math.min(wordCount, count - base);
+				for (int word = 0; word < end; word++) {
+					values[base + word] = (int) ((words[word] >>> shift) & mask) * divisor + min;
+				}
+			}
+		}
+
+		private void readFully(ByteBuffer target) throws IOException {
+			while (target.hasRemaining()) {
+				if (channel.read(target) < 0) {
+					throw new EOFException("Game archive is truncated");
+				}
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+
+	/**
+	 * The decoded columns of one block of games. Column arrays are only valid up
+	 * to size().
+	 */
+	public static class Block {
+
+		private final int[][] columns;
+		private final int[] bonusYahtzees;
+		private final int[] upperBonuses;
+		private int[] rolls;
+		private final int[] rollStarts;
+		private int size;
+
+		private Block(int capacity, boolean withRolls) {
+			columns = new int[withRolls ? ROUND_ROLLS + 1 : ROUND_ROLLS][capacity];
+			bonusYahtzees = new int[capacity];
+			upperBonuses = new int[capacity];
+			rolls = new int[withRolls ? capacity * Game.ROUNDS : 0];
+			rollStarts = new int[withRolls ? capacity + 1 : 0];
+		}
+
+		private int capacity() {
+			return columns[0].length;
+		}
+
+		/**
+		 * Fills the bonus yahtzees and upper bonus of each game, as Player does.
+		 */
+		private void derive() {
+			int[] yahtzees = columns[Game.Play.YAHTZEE.ordinal()];
+			for (int i = 0; i < size; i++) {
+				int upper = 0;
+				for (int play = 0; play <= Game.Play.SIX.ordinal(); play++) {
+					upper += columns[play][i];
+				}
+				upperBonuses[i] = Scorer.hasUpperScoreBonus(upper) ? 1 : 0;
+				bonusYahtzees[i] = yahtzees[i] > 0 ? (yahtzees[i] - 50) / 100 : 0;
+			}
+		}
+
+		private void index() {
+			for (int i = 0; i < size; i++) {
+				rollStarts[i + 1] = rollStarts[i] + countRolls(columns[ROUND_ROLLS][i]);
+			}
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public int[] getScores(Game.Play play) {
+			return columns[play.ordinal()];
+		}
+
+		public int getScore(Game.Play play, int game) {
+			return columns[play.ordinal()][game];
+		}
+
+		public boolean isScored(Game.Play play, int game) {
+			return (columns[FILLED][game] & (1 << play.ordinal())) != 0;
+		}
+
+		public int[] getBonusYahtzees() {
+			return bonusYahtzees;
+		}
+
+		/**
+		 * Returns 1 for each game with the upper bonus, otherwise 0.
+		 */
+		public int[] getUpperBonuses() {
+			return upperBonuses;
+		}
+
+		/**
+		 * Returns the final score of the game, as Player.score.
+		 */
+		public int getTotal(int game) {
+			int total = upperBonuses[game] * Game.UPPER_SCORE_BONUS;
+			for (int play = 0; play < PLAYS; play++) {
+				total += columns[play][game];
+			}
+			return total;
+		}
+
+		public Player toPlayer(int game, String name) {
+			Player player = new Player(name);
+			for (Game.Play play : Game.Play.values()) {
+				if (isScored(play, game)) {
+					player.play(play, getScore(play, game));
+				}
+			}
+			return player;
+		}
+
+		public boolean hasRolls() {
+			return rollStarts.length > 0;
+		}
+
+		/**
+		 * Returns the number of rolls (1 to 3) of the round of the game, or 0 if
+		 * it was not recorded.
+		 */
+		public int getRoundRolls(int game, int round) {
+			return (columns[ROUND_ROLLS][game] >>> (round * ROUND_ROLL_BITS)) & MAX_ROUND_ROLLS;
+		}
+
+		public int getRollCount(int game) {
+			return rollStarts[game + 1] - rollStarts[game];
+		}
+
+		/**
+		 * Writes the faces of a roll of the game, in roll order across its rounds,
+		 * to faces.
+		 */
+		public void getRoll(int game, int roll, int[] faces) {
+			if (roll < 0 || roll >= getRollCount(game)) {
+				throw new IndexOutOfBoundsException("Game " + game + " has no roll " + roll);
+			}
+			RollRecorder.decode(rolls[rollStarts[game] + roll], faces);
+		}
+
+		private static int countRolls(int roundRolls) {
+			int count = 0;
+			for (; roundRolls != 0; roundRolls >>>= ROUND_ROLL_BITS) {
+				count += roundRolls & MAX_ROUND_ROLLS;
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * Collects the rolls of one standard game as a GameListener, to be added to
+	 * an archive with its player. Reused from game to game with clear.
+	 */
+	public static class RollRecorder implements GameListener {
+
+		private final int[] codes = new int[Game.ROUNDS * MAX_ROUND_ROLLS];
+		private int count;
+		private int roundStart;
+		private int roundRolls;
+
+		public void clear() {
+			count = 0;
+			roundStart = 0;
+			roundRolls = 0;
+		}
+
+		@Override
+		public void diceRolled(Player player, int[] faces) {
+			if (faces.length != Game.DICE_COUNT) {
+				throw new IllegalArgumentException("Only rolls of " + Game.DICE_COUNT + " dice can be archived");
+			}
+			int code = 0;
+			for (int i = faces.length - 1; i >= 0; i--) {
+				if (faces[i] < 1 || faces[i] > Game.DICE_SIDES) {
+					throw new IllegalArgumentException("Face " + faces[i] + " is not of a standard die");
+				}
+				code = code * Game.DICE_SIDES + faces[i] - 1;
+			}
+			if (count - roundStart == MAX_ROUND_ROLLS || count == codes.length) {
+				throw new IllegalStateException("More than " + MAX_ROUND_ROLLS + " rolls in a round");
+			}
+			codes[count++] = code;
+		}
+
+		@Override
+		public void turnEnded(int turn, Player player) {
+			int round = Math.min(turn, Game.ROUNDS - 1);
+			roundRolls |= (count - roundStart) << (round * ROUND_ROLL_BITS);
+			roundStart = count;
+		}
+
+		int getRoundRolls() {
+			return roundRolls;
+		}
+
+		int[] getCodes() {
+			return codes;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		static void decode(int code, int[] faces) {
+			for (int i = 0; i < Game.DICE_COUNT; i++) {
+				faces[i] = code % Game.DICE_SIDES + 1;
+				code /= Game.DICE_SIDES;
+			}
+		}
+	}
+
+	/**
+	 * Returns the most bytes a column of the given number of values encodes to.
+	 */
+	private static int getColumnBound(int count) {
+		return 1 + 2 * MAX_VARINT_SIZE + (count + 1) / 2 * Long.BYTES;
+	}
+
+	static void encode(ByteBuffer buffer, int[] values, int count) {
+		int min = Integer.MAX_VALUE;
+		int max = 0;
+		for (int i = 0; i < count; i++) {
+			if (values[i] < 0) {
+				throw new IllegalArgumentException("Cannot archive negative value " + values[i]);
+			}
+			min = Math.min(min, values[i]);
+			max = Math.max(max, values[i]);
+		}
+		if (0 == count) {
+			min = 0;
+		}
+		int divisor = 0;
+		for (int i = 0; i < count && divisor != 1; i++) {
+			divisor = gcd(divisor, values[i] - min);
+		}
+		int bits = 0 == divisor ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros((max - min) / divisor);
+		buffer.put((byte) bits);
+		putVarint(buffer, min);
+		if (0 == bits) {
+			return;
+		}
+		putVarint(buffer, divisor);
+		int perWord = Long.SIZE / bits;
+		int wordCount = (count + perWord - 1) / perWord;
+		int start = buffer.position();
+		for (int word = 0; word < wordCount; word++) {
+			buffer.putLong(0);
+		}
+		for (int i = 0; i < count; i++) {
+			int index = start + (i % wordCount) * Long.BYTES;
+			long value = (long) ((values[i] - min) / divisor) << ((i / wordCount) * bits);
+			buffer.putLong(index, buffer.getLong(index) | value);
+		}
+	}
+
+	private static int gcd(int a, int b) {
+		while (b != 0) {
+			int t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+	static void putVarint(ByteBuffer buffer, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	static int getVarint(ByteBuffer buffer) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+			int b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+}
@@ -0,0 +1,25 @@
+/**
+ * The line based terminal a Controller talks to its players through, such as
+ * the console or a socket of a hosted table.
+ */
+public interface GameIO {
+
+	/**
+	 * Writes anything printed so far and reads the next line of input, without
+	 * its line terminator.
+	 *
+	 * @return the line or null at the end of input
+	 */
+	String readLine();
+
+	/**
+	 * Queues the text to be written by the next flush or read.
+	 */
+	void print(String text);
+
+	default void println(String text) {
+		print(text + "\n");
+	}
+
+	void flush();
+}
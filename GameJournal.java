@@ -0,0 +1,270 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append only binary log of a game, written as a GameListener. Records are
+ * buffered and written to the file at the end of each turn, so a crash loses
+ * at most the turn in progress.
+ *
+ * The journal starts with a header of the player names followed by records,
+ * each a type byte then its values. Unsigned values are varints.
+ *
+ * CHECKPOINT turn, then per player a 16 bit mask of the filled slots and the
+ *            score of each filled slot in Play order
+ * TURN       turn
+ * ROLL       number of dice then each face
+ * ACTION     Action ordinal
+ * PLAY       Play ordinal then score, of the player of the current turn
+ * TURN_END
+ * END        1 if the game was quit, otherwise 0
+ *
+ * A CHECKPOINT of every player is written every few turns, and the turn and
+ * offset of each is appended to an index file alongside the journal, so a
+ * JournalReplayer can seek to a turn rather than replay the game from the start.
+ */
+public class GameJournal implements GameListener, Closeable {
+
+	public static final int MAGIC = 0x314A4759;
+	public static final int VERSION = 1;
+	public static final int DEFAULT_CHECKPOINT_INTERVAL = 8;
+	public static final String INDEX_SUFFIX = ".idx";
+
+	static final int CHECKPOINT = 1;
+	static final int TURN = 2;
+	static final int ROLL = 3;
+	static final int ACTION = 4;
+	static final int PLAY = 5;
+	static final int TURN_END = 6;
+	static final int END = 7;
+	static final int INDEX_ENTRY_SIZE = Integer.BYTES + Long.BYTES;
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final int MAX_VARINT_SIZE = 5;
+
+	private final FileChannel channel;
+	private final FileChannel index;
+	private final int checkpointInterval;
+	private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+	private final ByteBuffer indexBuffer = ByteBuffer.allocate(INDEX_ENTRY_SIZE * 16).order(ByteOrder.LITTLE_ENDIAN);
+	private long written;
+	private boolean hasHeader;
+	private Player[] players;
+	private int lastCheckpoint = Integer.MIN_VALUE;
+
+	private GameJournal(FileChannel channel, FileChannel index, int checkpointInterval, boolean hasHeader)
+			throws IOException {
+		if (checkpointInterval < 1) {
+			throw new IllegalArgumentException("Checkpoint interval must be positive");
+		}
+		this.channel = channel;
+		this.index = index;
+		this.checkpointInterval = checkpointInterval;
+		this.hasHeader = hasHeader;
+		this.written = channel.position();
+	}
+
+	/**
+	 * Creates a journal for a new game, replacing any journal at the path.
+	 */
+	public static GameJournal create(Path path) throws IOException {
+		return create(path, DEFAULT_CHECKPOINT_INTERVAL);
+	}
+
+	/**
+	 * @param path the journal file
+	 * @param checkpointInterval the number of turns between checkpoints
+	 * @return the journal, which writes its header once the game starts
+	 */
+	public static GameJournal create(Path path, int checkpointInterval) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+			StandardOpenOption.TRUNCATE_EXISTING);
+		FileChannel index = FileChannel.open(getIndexPath(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+			StandardOpenOption.TRUNCATE_EXISTING);
+		return new GameJournal(channel, index, checkpointInterval, false);
+	}
+
+	/**
+	 * Reopens the journal of an unfinished game to continue it from the turn after
+	 * the last complete turn. Anything recorded of the incomplete turn is
+	 * discarded, and the index is rewritten from the checkpoints the replayer
+	 * found.
+	 *
+	 * @param path the journal file
+	 * @param replayer the replayer opened on the journal
+	 * @return the journal, positioned to record from replayer.getTurns()
+	 */
+	public static GameJournal resume(Path path, JournalReplayer replayer) throws IOException {
+		if (replayer.isFinished()) {
+			throw new IllegalStateException("Cannot resume a finished game");
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+		channel.truncate(replayer.getResumeOffset());
+		channel.position(replayer.getResumeOffset());
+		FileChannel index = FileChannel.open(getIndexPath(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+			StandardOpenOption.TRUNCATE_EXISTING);
+		GameJournal journal = new GameJournal(channel, index, DEFAULT_CHECKPOINT_INTERVAL, true);
+		for (int i = 0; i < replayer.getCheckpointCount(); i++) {
+			if (replayer.getCheckpointOffset(i) < replayer.getResumeOffset()) {
+				journal.putIndexEntry(replayer.getCheckpointTurn(i), replayer.getCheckpointOffset(i));
+			}
+		}
+		journal.flush();
+		return journal;
+	}
+
+	public static Path getIndexPath(Path path) {
+		return path.resolveSibling(path.getFileName() + INDEX_SUFFIX);
+	}
+
+	@Override
+	public void gameStarted(Player[] players, int turn) {
+		this.players = players;
+		if (!hasHeader) {
+			writeHeader(players);
+			hasHeader = true;
+		}
+		checkpoint(turn);
+	}
+
+	@Override
+	public void turnStarted(int turn, Player player) {
+		if (turn - lastCheckpoint >= checkpointInterval) {
+			checkpoint(turn);
+		}
+		ensure(1 + MAX_VARINT_SIZE);
+		buffer.put((byte) TURN);
+		putVarint(buffer, turn);
+	}
+
+	@Override
+	public void diceRolled(Player player, int[] faces) {
+		ensure(2 + faces.length * MAX_VARINT_SIZE);
+		buffer.put((byte) ROLL).put((byte) faces.length);
+		for (int face : faces) {
+			putVarint(buffer, face);
+		}
+	}
+
+	@Override
+	public void actionTaken(Player player, Game.Action action) {
+		ensure(2);
+		buffer.put((byte) ACTION).put((byte) action.ordinal());
+	}
+
+	@Override
+	public void played(Player player, Game.Play play, int score) {
+		ensure(2 + MAX_VARINT_SIZE);
+		buffer.put((byte) PLAY).put((byte) play.ordinal());
+		putVarint(buffer, score);
+	}
+
+	@Override
+	public void turnEnded(int turn, Player player) {
+		ensure(1);
+		buffer.put((byte) TURN_END);
+		flush();
+	}
+
+	@Override
+	public void gameEnded(Player[] players, boolean isQuit) {
+		ensure(2);
+		buffer.put((byte) END).put((byte) (isQuit ? 1 : 0));
+		flush();
+	}
+
+	private void writeHeader(Player[] players) {
+		ensure(Integer.BYTES + 1 + MAX_VARINT_SIZE);
+		buffer.putInt(MAGIC).put((byte) VERSION);
+		putVarint(buffer, players.length);
+		for (Player player : players) {
+			byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+			ensure(MAX_VARINT_SIZE + name.length);
+			putVarint(buffer, name.length);
+			buffer.put(name);
+		}
+	}
+
+	private void checkpoint(int turn) {
+		Game.Play[] plays = Game.Play.values();
+		ensure(1 + MAX_VARINT_SIZE + players.length * (Short.BYTES + plays.length * MAX_VARINT_SIZE));
+		putIndexEntry(turn, written + buffer.position());
+		buffer.put((byte) CHECKPOINT);
+		putVarint(buffer, turn);
+		for (Player player : players) {
+			int filled = 0;
+			for (Game.Play play : plays) {
+				filled |= player.isScored(play) ? 1 << play.ordinal() : 0;
+			}
+			buffer.putShort((short) filled);
+			for (Game.Play play : plays) {
+				if (player.isScored(play)) {
+					putVarint(buffer, player.getScore(play));
+				}
+			}
+		}
+		lastCheckpoint = turn;
+	}
+
+	private void putIndexEntry(int turn, long offset) {
+		if (indexBuffer.remaining() < INDEX_ENTRY_SIZE) {
+			flush();
+		}
+		indexBuffer.putInt(turn).putLong(offset);
+	}
+
+	/**
+	 * Makes room for a record of up to the given size, growing the buffer for a
+	 * record larger than it.
+	 */
+	private void ensure(int bytes) {
+		if (buffer.remaining() < bytes) {
+			flush();
+			if (buffer.capacity() < bytes) {
+				buffer = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+	}
+
+	/**
+	 * Writes the buffered records, then the index entries of any checkpoints
+	 * among them, so the index never points past the end of the journal.
+	 */
+	public void flush() {
+		try {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				written += channel.write(buffer);
+			}
+			buffer.clear();
+			indexBuffer.flip();
+			while (indexBuffer.hasRemaining()) {
+				index.write(indexBuffer);
+			}
+			indexBuffer.clear();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try (channel; index) {
+			flush();
+		}
+	}
+
+	static void putVarint(ByteBuffer buffer, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+}
@@ -0,0 +1,37 @@
+/**
+ * Receives the events of a Game as they happen, for recording or observing a
+ * game without taking part in it. Every event does nothing by default.
+ */
+public interface GameListener {
+
+	/**
+	 * @param players the players of the game, in turn order
+	 * @param turn the first turn to be played, 0 unless the game was resumed
+	 */
+	default void gameStarted(Player[] players, int turn) {
+	}
+
+	default void turnStarted(int turn, Player player) {
+	}
+
+	/**
+	 * The faces of every die after the first roll of a turn or a reroll.
+	 */
+	default void diceRolled(Player player, int[] faces) {
+	}
+
+	default void actionTaken(Player player, Game.Action action) {
+	}
+
+	/**
+	 * A score added to a slot of the player, through Player.play.
+	 */
+	default void played(Player player, Game.Play play, int score) {
+	}
+
+	default void turnEnded(int turn, Player player) {
+	}
+
+	default void gameEnded(Player[] players, boolean isQuit) {
+	}
+}
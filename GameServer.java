@@ -0,0 +1,173 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts a table for each client connecting to a local TCP or Unix domain
+ * socket. A client is a line based terminal, such as nc or socat, and its
+ * table asks for the players then plays a whole game over the connection.
+ *
+ * Every table runs on its own thread, blocked on a read of its socket nearly
+ * all of the time. Where the runtime has virtual threads those are used, so
+ * idle tables hold only their small heap state. Otherwise tables fall back to
+ * platform threads with a reduced stack size.
+ */
+public class GameServer implements Closeable {
+
+	public static final int MAX_PLAYERS = 10;
+
+	private static final int BACKLOG = 1024;
+	private static final long PLATFORM_STACK_SIZE = 256 * 1024;
+
+	private final SocketAddress address;
+	private final ValueTable valueTable;
+	private final Semaphore tables;
+	private final AtomicInteger openTables = new AtomicInteger();
+	private final AtomicLong hostedTables = new AtomicLong();
+	private ServerSocketChannel server;
+	private ExecutorService executor;
+	private boolean isVirtual;
+
+	/**
+	 * @param address the InetSocketAddress or UnixDomainSocketAddress to listen on
+	 * @param valueTable the table to advise players with, or null for no hints
+	 * @param maxTables the most tables hosted at once, further clients waiting
+	 * to be accepted
+	 */
+	public GameServer(SocketAddress address, ValueTable valueTable, int maxTables) {
+		if (null == address) {
+			throw new NullPointerException("GameServer address cannot be null");
+		}
+		if (maxTables < 1) {
+			throw new IllegalArgumentException("GameServer must host at least one table");
+		}
+		this.address = address;
+		this.valueTable = valueTable;
+		this.tables = new Semaphore(maxTables);
+	}
+
+	/**
+	 * Binds the socket, so clients may connect before run is called.
+	 */
+	public synchronized void bind() throws IOException {
+		if (null != server) {
+			return;
+		}
+		server = address instanceof UnixDomainSocketAddress
+			? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+			: ServerSocketChannel.open();
+		server.bind(address, BACKLOG);
+		executor = createExecutor();
+	}
+
+	/**
+	 * Accepts clients until closed.
+	 */
+	public void run() throws IOException {
+		bind();
+		try {
+			while (true) {
+				tables.acquireUninterruptibly();
+				SocketChannel client;
+				try {
+					client = server.accept();
+				} catch (IOException e) {
+					tables.release();
+					throw e;
+				}
+				openTables.incrementAndGet();
+				hostedTables.incrementAndGet();
+				executor.execute(() -> host(client));
+			}
+		} catch (AsynchronousCloseException e) {
+			// closed
+		}
+	}
+
+	private void host(SocketChannel client) {
+		try (client) {
+			Controller controller = new Controller(new StreamIO(Channels.newInputStream(client),
+				Channels.newOutputStream(client)));
+			controller.setAdvisor(null == valueTable ? null : new Advisor(valueTable));
+			Player[] players = controller.promptPlayers(MAX_PLAYERS);
+			new Game(controller).start(players);
+		} catch (NoSuchElementException | UncheckedIOException | IOException e) {
+			// the client disconnected
+		} finally {
+			openTables.decrementAndGet();
+			tables.release();
+		}
+	}
+
+	public SocketAddress getLocalAddress() throws IOException {
+		return null == server ? null : server.getLocalAddress();
+	}
+
+	public int getOpenTables() {
+		return openTables.get();
+	}
+
+	public long getHostedTables() {
+		return hostedTables.get();
+	}
+
+	/**
+	 * Returns true if tables run on virtual threads.
+	 */
+	public boolean isVirtual() {
+		return isVirtual;
+	}
+
+	/**
+	 * Stops accepting clients and disconnects every open table.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (null == server) {
+			return;
+		}
+		server.close();
+		// interrupting a table blocked on its socket closes the socket
+		executor.shutdownNow();
+		if (address instanceof UnixDomainSocketAddress) {
+			Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+		}
+	}
+
+	/**
+	 * Returns a virtual thread per task executor where the runtime has one,
+	 * looked up reflectively so the game still runs on runtimes without.
+	 */
+	private ExecutorService createExecutor() {
+		try {
+			ExecutorService virtual = (ExecutorService) Executors.class
+				.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			isVirtual = true;
+			return virtual;
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+			AtomicLong count = new AtomicLong();
+			ThreadFactory factory = task -> {
+				Thread thread = new Thread(null, task, "table-" + count.incrementAndGet(), PLATFORM_STACK_SIZE);
+				thread.setDaemon(true);
+				return thread;
+			};
+			return Executors.newCachedThreadPool(factory);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+import java.util.List;
+
+/**
+ * A simple Strategy that rerolls everything but the most common face and fills
+ * the play with the highest immediate score. It also plays packed hands for
+ * PackedTurn, making the same decisions without allocating.
+ */
+public class GreedyStrategy implements Strategy, PackedStrategy {
+
+	private static final Game.Play[] PLAYS = Game.Play.values();
+
+	@Override
+	public boolean chooseReroll(Player player, Dice dice, int rerolls) {
+		int keep = 1;
+		for (int face = 2; face <= dice.getMaxDieSides(); face++) {
+			// ties favor the higher face
+			if (dice.getFaceCount(face) >= dice.getFaceCount(keep)) {
+				keep = face;
+			}
+		}
+		if (dice.getFaceCount(keep) == dice.getDice().size()) {
+			return false;
+		}
+		for (Die die : dice.getDice()) {
+			die.setRolling(die.getFace() != keep);
+		}
+		return true;
+	}
+
+	@Override
+	public Game.Play choosePlay(Player player, Dice dice, List<Game.Play> plays, boolean isBonusYahtzee) {
+		Game.Play best = null;
+		int bestScore = -1;
+		for (Game.Play play : plays) {
+			int score = Scorer.score(play, player, dice, isBonusYahtzee);
+			if (score > bestScore) {
+				best = play;
+				bestScore = score;
+			}
+		}
+		return best;
+	}
+
+	@Override
+	public int chooseHold(Player player, long hand, int rerolls) {
+		int index = PackedHand.getIndex(hand);
+		int keep = 1;
+		for (int face = 2; face <= Game.DICE_SIDES; face++) {
+			if (HandIndex.getCount(index, face) >= HandIndex.getCount(index, keep)) {
+				keep = face;
+			}
+		}
+		int held = 0;
+		for (int die = 0; die < Game.DICE_COUNT; die++) {
+			if (PackedHand.getFace(hand, die) == keep) {
+				held |= 1 << die;
+			}
+		}
+		return held;
+	}
+
+	@Override
+	public Game.Play choosePlay(Player player, long hand, int plays, boolean isBonusYahtzee) {
+		int index = PackedHand.getIndex(hand);
+		Game.Play best = null;
+		int bestScore = -1;
+		for (Game.Play play : PLAYS) {
+			if ((plays & 1 << play.ordinal()) != 0) {
+				int score = Scorer.score(play, player, index, isBonusYahtzee);
+				if (score > bestScore) {
+					best = play;
+					bestScore = score;
+				}
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,119 @@
+import java.util.Arrays;
+
+/**
+ * Canonical encoding of a standard hand (Game.DICE_COUNT dice with
+ * Game.DICE_SIDES sides). As the order of the dice does not matter for scoring
+ * there are only 252 distinct hands, each identified by an index into the
+ * sorted multisets of faces.
+ * 
+ * Each face has a key weight of DICE_SIDES^(face - 1), so adding the weights
+ * of every die gives a key unique to the multiset (no face can appear
+ * DICE_SIDES times). The key is then mapped to the hand index through a lookup
+ * table, avoiding any sorting or histogram allocation.
+ */
+public class HandIndex {
+
+	public static final int SIZE = 252;
+
+	private static final int[] FACE_WEIGHTS;
+	private static final short[] INDEX_BY_KEY;
+	private static final int[][] FACES = new int[SIZE][Game.DICE_COUNT];
+	private static final int[][] COUNTS = new int[SIZE][Game.DICE_SIDES];
+	private static final int[] KEYS = new int[SIZE];
+
+	static {
+		FACE_WEIGHTS = new int[Game.DICE_SIDES];
+		int weight = 1;
+		for (int i = 0; i < Game.DICE_SIDES; i++) {
+			FACE_WEIGHTS[i] = weight;
+			weight *= Game.DICE_SIDES;
+		}
+		INDEX_BY_KEY = new short[weight];
+		Arrays.fill(INDEX_BY_KEY, (short) -1);
+		int[] faces = new int[Game.DICE_COUNT];
+		Arrays.fill(faces, 1);
+		int index = 0;
+		do {
+			int key = 0;
+			for (int i = 0; i < faces.length; i++) {
+				FACES[index][i] = faces[i];
+				COUNTS[index][faces[i] - 1]++;
+				key += FACE_WEIGHTS[faces[i] - 1];
+			}
+			KEYS[index] = key;
+			INDEX_BY_KEY[key] = (short) index;
+			index++;
+		} while (nextSortedFaces(faces));
+	}
+
+	private HandIndex() {
+	}
+
+	/**
+	 * Advances the faces to the next non-decreasing sequence.
+	 * 
+	 * @return false once every sequence has been visited
+	 */
+	private static boolean nextSortedFaces(int[] faces) {
+		int i = faces.length - 1;
+		while (i >= 0 && faces[i] == Game.DICE_SIDES) {
+			i--;
+		}
+		if (i < 0) {
+			return false;
+		}
+		faces[i]++;
+		for (int k = i + 1; k < faces.length; k++) {
+			faces[k] = faces[i];
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the key weight of a single die face, keys of a hand are the sum of
+	 * the weights of each die.
+	 */
+	public static int getKeyWeight(int face) {
+		return FACE_WEIGHTS[face - 1];
+	}
+
+	public static int indexOfKey(int key) {
+		return INDEX_BY_KEY[key];
+	}
+
+	public static int getKey(int index) {
+		return KEYS[index];
+	}
+
+	public static int indexOf(int... faces) {
+		if (faces.length != Game.DICE_COUNT) {
+			throw new IllegalArgumentException("A hand must have " + Game.DICE_COUNT + " faces");
+		}
+		int key = 0;
+		for (int face : faces) {
+			if (face < 1 || face > Game.DICE_SIDES) {
+				throw new IllegalArgumentException("Face " + face + " is out of range");
+			}
+			key += FACE_WEIGHTS[face - 1];
+		}
+		return INDEX_BY_KEY[key];
+	}
+
+	/**
+	 * Returns the die at the position of the sorted hand.
+	 */
+	public static int getFace(int index, int position) {
+		return FACES[index][position];
+	}
+
+	/**
+	 * Returns the number of dice of the face in the hand.
+	 */
+	public static int getCount(int index, int face) {
+		return COUNTS[index][face - 1];
+	}
+
+	public static boolean isYahtzee(int index) {
+		return FACES[index][0] == FACES[index][Game.DICE_COUNT - 1];
+	}
+}
@@ -0,0 +1,36 @@
+import java.util.Arrays;
+
+/**
+ * Histograms of scores kept as arrays of counts, counts[s] being how often s
+ * was scored. An array grows to the highest score counted, so each method
+ * returns the array to keep in place of the one given.
+ */
+public class Histograms {
+
+	private Histograms() {
+	}
+
+	/**
+	 * Counts one more of the score, which must not be negative.
+	 */
+	public static long[] count(long[] counts, int score) {
+		if (score >= counts.length) {
+			counts = Arrays.copyOf(counts, Math.max(score + 1, counts.length * 2));
+		}
+		counts[score]++;
+		return counts;
+	}
+
+	/**
+	 * Adds every count of the other histogram, which is not changed.
+	 */
+	public static long[] merge(long[] counts, long[] other) {
+		if (other.length > counts.length) {
+			counts = Arrays.copyOf(counts, other.length);
+		}
+		for (int s = 0; s < other.length; s++) {
+			counts[s] += other[s];
+		}
+		return counts;
+	}
+}
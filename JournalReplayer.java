@@ -0,0 +1,453 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a GameJournal back, rebuilding the players at the start of any turn
+ * and replaying the events of turns to a GameListener.
+ *
+ * Opening a journal reads its index and scans only the records after the last
+ * indexed checkpoint, to find how many turns were completed. A journal cut off
+ * by a crash, part way through a record, ends at the last whole record.
+ */
+public class JournalReplayer {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final Path path;
+	private final String[] names;
+	private final long dataOffset;
+	private int[] checkpointTurns = new int[16];
+	private long[] checkpointOffsets = new long[16];
+	private int checkpoints;
+	private int turns;
+	private long resumeOffset;
+	private boolean finished;
+
+	private JournalReplayer(Path path, String[] names, long dataOffset) {
+		this.path = path;
+		this.names = names;
+		this.dataOffset = dataOffset;
+		this.resumeOffset = dataOffset;
+	}
+
+	/**
+	 * @param path the journal file
+	 * @return the replayer of the journal
+	 * @throws IOException if the journal cannot be read or is not a journal
+	 */
+	public static JournalReplayer open(Path path) throws IOException {
+		try (Input in = new Input(FileChannel.open(path, StandardOpenOption.READ))) {
+			if (in.readInt() != GameJournal.MAGIC) {
+				throw new IOException(path + " is not a game journal");
+			}
+			int version = in.readByte();
+			if (version != GameJournal.VERSION) {
+				throw new IOException("Unsupported game journal version " + version);
+			}
+			String[] names = new String[in.readVarint()];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = new String(in.readBytes(in.readVarint()), StandardCharsets.UTF_8);
+			}
+			JournalReplayer replayer = new JournalReplayer(path, names, in.position());
+			replayer.readIndex(in);
+			replayer.scan(in);
+			return replayer;
+		} catch (EOFException e) {
+			throw new IOException("Game journal " + path + " is truncated", e);
+		}
+	}
+
+	/**
+	 * Loads the index entries that point at checkpoints of this journal, stopping
+	 * at the first that does not, as may be left by a crash.
+	 */
+	private void readIndex(Input in) throws IOException {
+		Path indexPath = GameJournal.getIndexPath(path);
+		if (!Files.isRegularFile(indexPath)) {
+			return;
+		}
+		ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexPath)).order(ByteOrder.LITTLE_ENDIAN);
+		while (index.remaining() >= GameJournal.INDEX_ENTRY_SIZE) {
+			int turn = index.getInt();
+			long offset = index.getLong();
+			if (offset < dataOffset || offset >= in.size()
+					|| (checkpoints > 0 && offset <= checkpointOffsets[checkpoints - 1])) {
+				break;
+			}
+			addCheckpoint(turn, offset);
+		}
+		// the scan starts from the last checkpoint, so it must be whole
+		while (checkpoints > 0 && !isCheckpoint(in, checkpoints - 1)) {
+			checkpoints--;
+		}
+	}
+
+	private boolean isCheckpoint(Input in, int checkpoint) throws IOException {
+		in.seek(checkpointOffsets[checkpoint]);
+		try {
+			if (in.readByte() != GameJournal.CHECKPOINT || in.readVarint() != checkpointTurns[checkpoint]) {
+				return false;
+			}
+			skipSnapshot(in);
+			return true;
+		} catch (EOFException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Reads the records after the last known checkpoint, counting the completed
+	 * turns and indexing any checkpoints missing from the index.
+	 */
+	private void scan(Input in) throws IOException {
+		long start = dataOffset;
+		if (checkpoints > 0) {
+			start = checkpointOffsets[checkpoints - 1];
+			turns = checkpointTurns[checkpoints - 1];
+			resumeOffset = start;
+		}
+		in.seek(start);
+		int turn = turns;
+		try {
+			while (true) {
+				long offset = in.position();
+				int type = in.read();
+				if (type < 0) {
+					return;
+				}
+				switch (type) {
+					case GameJournal.CHECKPOINT:
+						int checkpointTurn = in.readVarint();
+						skipSnapshot(in);
+						if (0 == checkpoints || offset > checkpointOffsets[checkpoints - 1]) {
+							addCheckpoint(checkpointTurn, offset);
+						}
+						break;
+					case GameJournal.TURN:
+						turn = in.readVarint();
+						break;
+					case GameJournal.TURN_END:
+						turns = turn + 1;
+						resumeOffset = in.position();
+						break;
+					case GameJournal.END:
+						finished = 0 == in.readByte();
+						return;
+					default:
+						skipRecord(in, type);
+				}
+			}
+		} catch (EOFException e) {
+			// a record cut off part way through
+		}
+	}
+
+	private void addCheckpoint(int turn, long offset) {
+		if (checkpoints == checkpointTurns.length) {
+			checkpointTurns = Arrays.copyOf(checkpointTurns, checkpoints * 2);
+			checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpoints * 2);
+		}
+		checkpointTurns[checkpoints] = turn;
+		checkpointOffsets[checkpoints] = offset;
+		checkpoints++;
+	}
+
+	private void skipSnapshot(Input in) throws IOException {
+		for (int i = 0; i < names.length; i++) {
+			int filled = in.readShort();
+			for (int k = Integer.bitCount(filled); k > 0; k--) {
+				in.readVarint();
+			}
+		}
+	}
+
+	private static void skipRecord(Input in, int type) throws IOException {
+		switch (type) {
+			case GameJournal.ROLL:
+				for (int count = in.readByte(); count > 0; count--) {
+					in.readVarint();
+				}
+				break;
+			case GameJournal.ACTION:
+				in.readByte();
+				break;
+			case GameJournal.PLAY:
+				in.readByte();
+				in.readVarint();
+				break;
+			default:
+				throw new IOException("Unrecognized game journal record " + type);
+		}
+	}
+
+	/**
+	 * Returns the players as they were at the start of the turn.
+	 *
+	 * @param turn a turn from 0 to getTurns(), getTurns() being the state after
+	 * the last completed turn
+	 * @return new players of the journal's game
+	 */
+	public Player[] replayTo(int turn) throws IOException {
+		return replay(turn, turn, new GameListener() {});
+	}
+
+	/**
+	 * Rebuilds the players at the start of the from turn, then plays the events of
+	 * each turn up to (exclusive) the to turn on them, passing each to the
+	 * listener. The listener is told the game started at the from turn.
+	 *
+	 * @param from the first turn to replay
+	 * @param to the turn to stop at, up to getTurns()
+	 * @param listener the listener of the replayed events
+	 * @return the players as they were at the start of the to turn
+	 */
+	public Player[] replay(int from, int to, GameListener listener) throws IOException {
+		if (from < 0 || from > to || to > turns) {
+			throw new IllegalArgumentException("Turns " + from + " to " + to + " are not in the journal of "
+				+ turns + " turns");
+		}
+		Player[] players = new Player[names.length];
+		for (int i = 0; i < players.length; i++) {
+			players[i] = new Player(names[i]);
+		}
+		int checkpoint = findCheckpoint(from);
+		boolean started = false;
+		try (Input in = new Input(FileChannel.open(path, StandardOpenOption.READ))) {
+			in.seek(checkpoint < 0 ? dataOffset : checkpointOffsets[checkpoint]);
+			Player current = null;
+			int turn = -1;
+			records:
+			while (true) {
+				int type = in.read();
+				if (type < 0) {
+					break;
+				}
+				switch (type) {
+					case GameJournal.CHECKPOINT:
+						int checkpointTurn = in.readVarint();
+						if (started) {
+							// the players being replayed already hold the same scores
+							skipSnapshot(in);
+						} else {
+							readSnapshot(in, players);
+						}
+						if (checkpointTurn >= to) {
+							break records;
+						}
+						break;
+					case GameJournal.TURN:
+						turn = in.readVarint();
+						if (!started && turn >= from) {
+							started = true;
+							listener.gameStarted(players, from);
+						}
+						if (turn >= to) {
+							break records;
+						}
+						current = players[turn % players.length];
+						if (started) {
+							listener.turnStarted(turn, current);
+						}
+						break;
+					case GameJournal.ROLL:
+						int[] faces = new int[in.readByte()];
+						for (int i = 0; i < faces.length; i++) {
+							faces[i] = in.readVarint();
+						}
+						if (started) {
+							listener.diceRolled(current, faces);
+						}
+						break;
+					case GameJournal.ACTION:
+						Game.Action action = Game.Action.values()[in.readByte()];
+						if (started) {
+							listener.actionTaken(current, action);
+						}
+						break;
+					case GameJournal.PLAY:
+						Game.Play play = Game.Play.values()[in.readByte()];
+						int score = in.readVarint();
+						current.play(play, score);
+						if (started) {
+							listener.played(current, play, score);
+						}
+						break;
+					case GameJournal.TURN_END:
+						if (started) {
+							listener.turnEnded(turn, current);
+						}
+						break;
+					case GameJournal.END:
+						boolean isQuit = 0 != in.readByte();
+						if (started) {
+							listener.gameEnded(players, isQuit);
+						}
+						break records;
+					default:
+						throw new IOException("Unrecognized game journal record " + type);
+				}
+			}
+		} catch (EOFException e) {
+			// the incomplete turn after the last completed turn
+		}
+		if (!started) {
+			listener.gameStarted(players, from);
+		}
+		return players;
+	}
+
+	private void readSnapshot(Input in, Player[] players) throws IOException {
+		Game.Play[] plays = Game.Play.values();
+		for (int i = 0; i < players.length; i++) {
+			Player player = new Player(names[i]);
+			int filled = in.readShort();
+			for (Game.Play play : plays) {
+				if ((filled & (1 << play.ordinal())) != 0) {
+					player.play(play, in.readVarint());
+				}
+			}
+			players[i] = player;
+		}
+	}
+
+	/**
+	 * Returns the index of the last checkpoint at or before the turn, or -1.
+	 */
+	private int findCheckpoint(int turn) {
+		int index = Arrays.binarySearch(checkpointTurns, 0, checkpoints, turn);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	public String[] getPlayerNames() {
+		return names.clone();
+	}
+
+	/**
+	 * Returns the number of turns completed.
+	 */
+	public int getTurns() {
+		return turns;
+	}
+
+	/**
+	 * Returns true if the game was played to its end, rather than quit or cut off.
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Returns the offset just after the last completed turn, where a resumed game
+	 * continues the journal.
+	 */
+	public long getResumeOffset() {
+		return resumeOffset;
+	}
+
+	public int getCheckpointCount() {
+		return checkpoints;
+	}
+
+	public int getCheckpointTurn(int index) {
+		return checkpointTurns[index];
+	}
+
+	public long getCheckpointOffset(int index) {
+		return checkpointOffsets[index];
+	}
+
+	/**
+	 * Buffered sequential reads of a file channel, from any offset.
+	 */
+	private static class Input implements AutoCloseable {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		private long bufferOffset;
+
+		Input(FileChannel channel) {
+			this.channel = channel;
+			buffer.limit(0);
+		}
+
+		long size() throws IOException {
+			return channel.size();
+		}
+
+		long position() {
+			return bufferOffset + buffer.position();
+		}
+
+		void seek(long offset) {
+			bufferOffset = offset;
+			buffer.limit(0);
+		}
+
+		/**
+		 * Returns the next byte, or -1 at the end of the file.
+		 */
+		int read() throws IOException {
+			if (!buffer.hasRemaining() && !fill()) {
+				return -1;
+			}
+			return buffer.get() & 0xFF;
+		}
+
+		int readByte() throws IOException {
+			int b = read();
+			if (b < 0) {
+				throw new EOFException();
+			}
+			return b;
+		}
+
+		int readShort() throws IOException {
+			return readByte() | (readByte() << 8);
+		}
+
+		int readInt() throws IOException {
+			return readShort() | (readShort() << 16);
+		}
+
+		int readVarint() throws IOException {
+			int value = 0;
+			for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+				int b = readByte();
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IOException("Malformed varint");
+		}
+
+		byte[] readBytes(int length) throws IOException {
+			byte[] bytes = new byte[length];
+			for (int i = 0; i < length; i++) {
+				bytes[i] = (byte) readByte();
+			}
+			return bytes;
+		}
+
+		private boolean fill() throws IOException {
+			bufferOffset += buffer.position();
+			buffer.clear();
+			int read = channel.read(buffer, bufferOffset);
+			buffer.flip();
+			return read > 0;
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+}
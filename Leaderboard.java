@@ -0,0 +1,190 @@
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The players of a game ranked by score, highest first and in turn order
+ * among equal scores, as an order statistic treap. Updating a player after it
+ * scores and finding a rank or the player at a rank take logarithmic time, so
+ * a leaderboard of the top players and those around the current player never
+ * visits every player.
+ */
+public class Leaderboard {
+
+	private final Map<Player, Node> nodes = new IdentityHashMap<>();
+	private Node root;
+
+	public Leaderboard(Player[] players) {
+		for (int i = 0; i < players.length; i++) {
+			if (nodes.containsKey(players[i])) {
+				throw new IllegalArgumentException(players[i].getName() + " is on the leaderboard twice");
+			}
+			Node node = new Node(players[i], i);
+			nodes.put(players[i], node);
+			root = insert(root, node);
+		}
+	}
+
+	/**
+	 * Moves the player to the rank of its current score.
+	 */
+	public void update(Player player) {
+		Node node = getNode(player);
+		if (node.score == player.score()) {
+			return;
+		}
+		root = remove(root, node);
+		node.score = player.score();
+		node.left = null;
+		node.right = null;
+		node.size = 1;
+		root = insert(root, node);
+	}
+
+	public int size() {
+		return nodes.size();
+	}
+
+	/**
+	 * Returns the rank of the player, 0 for the leader.
+	 */
+	public int getRank(Player player) {
+		Node node = getNode(player);
+		int rank = 0;
+		Node at = root;
+		while (at != node) {
+			if (compare(node, at) < 0) {
+				at = at.left;
+			} else {
+				rank += size(at.left) + 1;
+				at = at.right;
+			}
+		}
+		return rank + size(node.left);
+	}
+
+	/**
+	 * Returns the player at the rank, 0 for the leader.
+	 */
+	public Player get(int rank) {
+		if (rank < 0 || rank >= size()) {
+			throw new IndexOutOfBoundsException("Rank " + rank + " of " + size() + " players");
+		}
+		Node at = root;
+		while (true) {
+			int left = size(at.left);
+			if (rank < left) {
+				at = at.left;
+			} else if (rank == left) {
+				return at.player;
+			} else {
+				rank -= left + 1;
+				at = at.right;
+			}
+		}
+	}
+
+	private Node getNode(Player player) {
+		Node node = nodes.get(player);
+		if (null == node) {
+			throw new IllegalArgumentException(player.getName() + " is not on the leaderboard");
+		}
+		return node;
+	}
+
+	private static Node insert(Node at, Node node) {
+		if (null == at) {
+			return node;
+		}
+		if (compare(node, at) < 0) {
+			at.left = insert(at.left, node);
+			if (at.left.priority > at.priority) {
+				at = rotateRight(at);
+			}
+		} else {
+			at.right = insert(at.right, node);
+			if (at.right.priority > at.priority) {
+				at = rotateLeft(at);
+			}
+		}
+		at.resize();
+		return at;
+	}
+
+	private static Node remove(Node at, Node node) {
+		if (at == node) {
+			return merge(at.left, at.right);
+		}
+		if (compare(node, at) < 0) {
+			at.left = remove(at.left, node);
+		} else {
+			at.right = remove(at.right, node);
+		}
+		at.resize();
+		return at;
+	}
+
+	private static Node merge(Node left, Node right) {
+		if (null == left) {
+			return right;
+		}
+		if (null == right) {
+			return left;
+		}
+		if (left.priority > right.priority) {
+			left.right = merge(left.right, right);
+			left.resize();
+			return left;
+		}
+		right.left = merge(left, right.left);
+		right.resize();
+		return right;
+	}
+
+	private static Node rotateRight(Node at) {
+		Node left = at.left;
+		at.left = left.right;
+		left.right = at;
+		at.resize();
+		return left;
+	}
+
+	private static Node rotateLeft(Node at) {
+		Node right = at.right;
+		at.right = right.left;
+		right.left = at;
+		at.resize();
+		return right;
+	}
+
+	private static int compare(Node a, Node b) {
+		return a.score != b.score ? Integer.compare(b.score, a.score) : Integer.compare(a.seat, b.seat);
+	}
+
+	private static int size(Node node) {
+		return null == node ? 0 : node.size;
+	}
+
+	private static final class Node {
+
+		private final Player player;
+		private final int seat;
+		private final int priority;
+		private int score;
+		private int size = 1;
+		private Node left;
+		private Node right;
+
+		private Node(Player player, int seat) {
+			this.player = player;
+			this.seat = seat;
+			this.score = player.score();
+			// a fixed mix of the seat, so games rank the same every run
+			int h = seat * 0x9E3779B9;
+			this.priority = h ^ (h >>> 16);
+		}
+
+		private void resize() {
+			size = size(left) + size(right) + 1;
+		}
+	}
+}
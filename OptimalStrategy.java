@@ -0,0 +1,41 @@
+import java.util.List;
+
+/**
+ * A Strategy making the decisions that maximize the expected final score, as
+ * ranked by an Advisor. Plays standard dice only, and like its Advisor is not
+ * thread safe.
+ */
+public class OptimalStrategy implements Strategy {
+
+	private final Advisor advisor;
+
+	public OptimalStrategy(Advisor advisor) {
+		if (null == advisor) {
+			throw new NullPointerException("OptimalStrategy advisor cannot be null");
+		}
+		this.advisor = advisor;
+	}
+
+	@Override
+	public boolean chooseReroll(Player player, Dice dice, int rerolls) {
+		Advice.Hold hold = advisor.advise(player, dice, rerolls).getBestHold();
+		List<Die> faces = dice.getDice();
+		if (null == hold || hold.getHeldMask() == (1 << faces.size()) - 1) {
+			return false;
+		}
+		for (int i = 0; i < faces.size(); i++) {
+			faces.get(i).setRolling(!hold.isHeld(i));
+		}
+		return true;
+	}
+
+	@Override
+	public Game.Play choosePlay(Player player, Dice dice, List<Game.Play> plays, boolean isBonusYahtzee) {
+		for (Advice.PlayOption option : advisor.advise(player, dice, 0, isBonusYahtzee).getPlays()) {
+			if (plays.contains(option.getPlay())) {
+				return option.getPlay();
+			}
+		}
+		return plays.get(0);
+	}
+}
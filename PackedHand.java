@@ -0,0 +1,97 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Standard dice packed into a single long, so a round can be played without
+ * any Dice or Die objects. Die i shows the face in bits 3i to 3i + 2 and is held
+ * while bit HELD_SHIFT + i is set:
+ *
+ * held (5 bits) | face 4 | face 3 | face 2 | face 1 | face 0
+ *
+ * Hands are values, every operation returns the changed hand.
+ */
+public class PackedHand {
+
+	public static final int ALL_HELD = (1 << Game.DICE_COUNT) - 1;
+
+	private static final int FACE_BITS = 3;
+	private static final long FACE_MASK = (1 << FACE_BITS) - 1;
+	private static final int HELD_SHIFT = FACE_BITS * Game.DICE_COUNT;
+	private static final long FACES_MASK = (1L << HELD_SHIFT) - 1;
+	// the HandIndex key weight of each face, 0 for the unused face values
+	private static final int[] KEY_WEIGHTS = new int[1 << FACE_BITS];
+
+	static {
+		for (int face = 1; face <= Game.DICE_SIDES; face++) {
+			KEY_WEIGHTS[face] = HandIndex.getKeyWeight(face);
+		}
+	}
+
+	private PackedHand() {
+	}
+
+	/**
+	 * Packs the faces with no dice held.
+	 */
+	public static long of(int... faces) {
+		if (faces.length != Game.DICE_COUNT) {
+			throw new IllegalArgumentException("A hand must have " + Game.DICE_COUNT + " faces");
+		}
+		long hand = 0;
+		for (int i = 0; i < faces.length; i++) {
+			hand = setFace(hand, i, faces[i]);
+		}
+		return hand;
+	}
+
+	public static int getFace(long hand, int die) {
+		return (int) (hand >>> (die * FACE_BITS) & FACE_MASK);
+	}
+
+	public static long setFace(long hand, int die, int face) {
+		if (face < 1 || face > Game.DICE_SIDES) {
+			throw new IllegalArgumentException("Face " + face + " is out of range");
+		}
+		int shift = die * FACE_BITS;
+		return hand & ~(FACE_MASK << shift) | (long) face << shift;
+	}
+
+	/**
+	 * Returns the held dice, bit i set if die i is held.
+	 */
+	public static int getHeld(long hand) {
+		return (int) (hand >>> HELD_SHIFT);
+	}
+
+	public static long setHeld(long hand, int held) {
+		return hand & FACES_MASK | (long) (held & ALL_HELD) << HELD_SHIFT;
+	}
+
+	public static boolean isHeld(long hand, int die) {
+		return (getHeld(hand) & (1 << die)) != 0;
+	}
+
+	/**
+	 * Rolls every die that is not held, then releases the hold.
+	 */
+	public static long roll(long hand, RandomGenerator random) {
+		int held = getHeld(hand);
+		for (int die = 0; die < Game.DICE_COUNT; die++) {
+			if ((held & (1 << die)) == 0) {
+				int shift = die * FACE_BITS;
+				hand = hand & ~(FACE_MASK << shift) | (long) (random.nextInt(Game.DICE_SIDES) + 1) << shift;
+			}
+		}
+		return hand & FACES_MASK;
+	}
+
+	/**
+	 * Returns the HandIndex of the faces.
+	 */
+	public static int getIndex(long hand) {
+		int key = 0;
+		for (int die = 0; die < Game.DICE_COUNT; die++) {
+			key += KEY_WEIGHTS[getFace(hand, die)];
+		}
+		return HandIndex.indexOfKey(key);
+	}
+}
@@ -0,0 +1,30 @@
+/**
+ * Makes the decisions of a round played by PackedTurn, on hands packed by
+ * PackedHand. Decisions should allocate nothing, so that rounds can be played
+ * without producing garbage.
+ */
+public interface PackedStrategy {
+
+	/**
+	 * Chooses the dice to hold for the next reroll.
+	 *
+	 * @param player the player taking the round
+	 * @param hand the current hand, no dice held
+	 * @param rerolls the number of rerolls remaining, always greater than zero
+	 * @return the held dice, bit i set to hold die i, or PackedHand.ALL_HELD to
+	 * keep the hand
+	 */
+	public int chooseHold(Player player, long hand, int rerolls);
+
+	/**
+	 * Chooses the play to fill with the final hand of the round.
+	 *
+	 * @param player the player taking the round
+	 * @param hand the final hand
+	 * @param plays the plays that may be chosen, the bit of each Play ordinal set,
+	 * never 0
+	 * @param isBonusYahtzee true if choosing the slot filled alongside a bonus yahtzee
+	 * @return one of the given plays
+	 */
+	public Game.Play choosePlay(Player player, long hand, int plays, boolean isBonusYahtzee);
+}
@@ -0,0 +1,130 @@
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays single player rounds on a PackedHand, following the same rules as
+ * Simulator.playRound but without allocating: the hand is a long, plays are
+ * bitmasks and scores are looked up by HandIndex, so a round only changes the
+ * Player's primitive fields. Reusing one PackedTurn and Player for every game
+ * plays any number of games without producing garbage.
+ *
+ * A PackedTurn is not thread safe.
+ */
+public class PackedTurn {
+
+	private static final Game.Play[] PLAYS = Game.Play.values();
+	private static final int YAHTZEE_BIT = 1 << Game.Play.YAHTZEE.ordinal();
+	// the plays of each group of Game.getBonusYahtzeeGroups, in order
+	private static final int[] BONUS_YAHTZEE_GROUPS;
+
+	static {
+		List<List<Game.Play>> groups = Game.getBonusYahtzeeGroups();
+		BONUS_YAHTZEE_GROUPS = new int[groups.size()];
+		for (int i = 0; i < groups.size(); i++) {
+			for (Game.Play play : groups.get(i)) {
+				BONUS_YAHTZEE_GROUPS[i] |= 1 << play.ordinal();
+			}
+		}
+	}
+
+	private final PackedStrategy strategy;
+	private final RandomGenerator random;
+	private long hand;
+
+	/**
+	 * @param strategy makes the decisions of each round
+	 * @param random the generator to roll the dice with
+	 */
+	public PackedTurn(PackedStrategy strategy, RandomGenerator random) {
+		if (null == strategy) {
+			throw new NullPointerException("PackedTurn strategy cannot be null");
+		}
+		if (null == random) {
+			throw new NullPointerException("PackedTurn random cannot be null");
+		}
+		this.strategy = strategy;
+		this.random = random;
+	}
+
+	/**
+	 * Returns the final hand of the last round played.
+	 */
+	public long getHand() {
+		return hand;
+	}
+
+	/**
+	 * Resets the player and plays every round of a game.
+	 */
+	public void playGame(Player player) {
+		player.reset();
+		for (int i = 0; i < Game.ROUNDS; i++) {
+			play(player);
+		}
+	}
+
+	/**
+	 * Plays a single round, rolling once and allowing up to Solver.REROLLS
+	 * rerolls before a play is filled.
+	 *
+	 * @param player the player taking the round
+	 * @return the play filled
+	 */
+	public Game.Play play(Player player) {
+		long hand = PackedHand.roll(0, random);
+		for (int rerolls = Solver.REROLLS; rerolls > 0; rerolls--) {
+			int held = strategy.chooseHold(player, hand, rerolls);
+			if (held == PackedHand.ALL_HELD) {
+				break;
+			}
+			hand = PackedHand.roll(PackedHand.setHeld(hand, held), random);
+		}
+		this.hand = hand;
+
+		int index = PackedHand.getIndex(hand);
+		boolean isYahtzee = HandIndex.isYahtzee(index);
+		int plays = player.getOpenPlays() | (player.hadYahtzee() && isYahtzee ? YAHTZEE_BIT : 0);
+		Game.Play play = choosePlay(player, hand, plays, false);
+		boolean isBonusYahtzee = player.hadYahtzee() && Game.Play.YAHTZEE == play;
+		int score = Scorer.score(play, player, index, isBonusYahtzee);
+		if (isBonusYahtzee) {
+			int bonusPlays = getBonusYahtzeePlays(player, index);
+			if (bonusPlays == 0) {
+				throw new IllegalStateException("There was no valid play for the bonus yahtzee");
+			}
+			Game.Play bonusPlay = Integer.bitCount(bonusPlays) == 1
+				? PLAYS[Integer.numberOfTrailingZeros(bonusPlays)]
+				: choosePlay(player, hand, bonusPlays, true);
+			player.play(bonusPlay, Scorer.score(bonusPlay, player, index, true));
+		}
+		player.play(play, score);
+		return play;
+	}
+
+	private Game.Play choosePlay(Player player, long hand, int plays, boolean isBonusYahtzee) {
+		Game.Play play = strategy.choosePlay(player, hand, plays, isBonusYahtzee);
+		if (null == play || (plays & 1 << play.ordinal()) == 0) {
+			throw new IllegalStateException("Strategy chose a play that cannot be filled: " + play);
+		}
+		return play;
+	}
+
+	/**
+	 * Returns the plays that may be filled alongside a bonus yahtzee, as
+	 * Game.getBonusYahtzeePlays.
+	 */
+	private static int getBonusYahtzeePlays(Player player, int index) {
+		int open = player.getOpenPlays();
+		int face = HandIndex.getFace(index, 0);
+		int upper = 1 << Game.getUpperScorePlayFromDice(face).ordinal();
+		if ((open & upper) != 0) {
+			return upper;
+		}
+		for (int group : BONUS_YAHTZEE_GROUPS) {
+			if ((open & group) != 0) {
+				return open & group;
+			}
+		}
+		return 0;
+	}
+}
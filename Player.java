@@ -1,26 +1,42 @@
 import java.lang.StringBuilder;
-import java.util.EnumMap;
+import java.util.Arrays;
 
+/**
+ * The scorecard of a player. Totals are kept as plays are scored, so every
+ * score query is a field read.
+ */
 public class Player implements Comparable<Player> {
 
 	private static final int DIVIDER_LENGTH = 20;
+	private static final int ALL_PLAYS = (1 << Game.Play.values().length) - 1;
 
 	private String name;
 
-	private EnumMap<Game.Play, Integer> playScores;
+	private final int[] playScores = new int[Game.Play.values().length];
+	// bit per Play ordinal set while the play is open
+	private int open;
+	private int upperScore;
+	private int lowerScore;
+	private int upperScoreBonusDifferential;
 
 	public Player(String name) {
 		this.name = name;
-		playScores = new EnumMap<>(Game.Play.class);
 		reset();
 	}
 
 	public boolean hadYahtzee() {
-		return getScore(Game.Play.YAHTZEE) != 0;
+		return playScores[Game.Play.YAHTZEE.ordinal()] != 0;
 	}
 
 	public boolean isScored(Game.Play play) {
-		return null != playScores.get(play);
+		return (open & 1 << play.ordinal()) == 0;
+	}
+
+	/**
+	 * Returns the open plays, the bit of each Play ordinal set while it is open.
+	 */
+	public int getOpenPlays() {
+		return open;
 	}
 
 	public String getName() {
@@ -28,49 +44,70 @@ public class Player implements Comparable<Player> {
 	}
 
 	public int score() {
-		return Scorer.calcUpperScore(playScores) + Scorer.calcLowerScore(playScores);
+		return upperScore + Scorer.getUpperScoreBonus(upperScore) + lowerScore;
 	}
 
 	public int getScore(Game.Play play) {
-		Integer score = playScores.get(play);
-		return null == score ? 0 : score;
+		return playScores[play.ordinal()];
 	}
 
-	public void play(Game.Play play, int score) {
-		playScores.compute(play, (k, v) -> addScore(v, score));
+	/**
+	 * Returns the total of the upper plays, without the bonus.
+	 */
+	public int getUpperScore() {
+		return upperScore;
 	}
 
-	public void reset() {
-		Game.Play[] playValues = Game.Play.values();
-		for (Game.Play play : playValues) {
-			playScores.put(play, null);
-		}
+	public int getLowerScore() {
+		return lowerScore;
+	}
+
+	/**
+	 * Returns how far the scored upper plays are above or below three of each
+	 * face, the pace of the upper score bonus.
+	 */
+	public int getUpperScoreBonusDifferential() {
+		return upperScoreBonusDifferential;
 	}
 
-	private int addScore(Integer oldScore, int score) {
-		if (null == oldScore) {
-			oldScore = 0;
+	public void play(Game.Play play, int score) {
+		int bit = 1 << play.ordinal();
+		playScores[play.ordinal()] += score;
+		if (play.isUpper()) {
+			upperScore += score;
+			if ((open & bit) != 0) {
+				upperScoreBonusDifferential -= Scorer.getUpperScoreBonusAverage(play);
+			}
+			upperScoreBonusDifferential += score;
+		} else {
+			lowerScore += score;
 		}
-		return oldScore + score;
+		open &= ~bit;
+	}
+
+	public void reset() {
+		Arrays.fill(playScores, 0);
+		open = ALL_PLAYS;
+		upperScore = 0;
+		lowerScore = 0;
+		upperScoreBonusDifferential = 0;
 	}
 
 	public String getScoreInfoString() {
-		int upperTotal = Scorer.calcUpperScore(playScores);
-		int lowerTotal = Scorer.calcLowerScore(playScores);
 		int bonusYahtzees = getBonusYahtzees();
 		StringBuilder builder = new StringBuilder();
 		builder.append("Name: " + name + "\n");
-		builder.append("Upper Score: " + Scorer.removeUpperScoreBonus(upperTotal) + "\n");
-		builder.append("Upper Bonus: " + Scorer.getUpperScoreBonus(upperTotal) + 
-			" [" + String.format("%+d", Scorer.getUpperScoreBonusDifferential(playScores)) + "]\n");
-		builder.append("Lower Score: " + lowerTotal + "\n");
+		builder.append("Upper Score: " + upperScore + "\n");
+		builder.append("Upper Bonus: " + Scorer.getUpperScoreBonus(upperScore) + 
+			" [" + String.format("%+d", upperScoreBonusDifferential) + "]\n");
+		builder.append("Lower Score: " + lowerScore + "\n");
 		builder.append("Bonus Yahtzee: " + bonusYahtzees + " (" + (100 * bonusYahtzees) + ")\n");
 		builder.append("Total Score: " + score() + "\n");
 		return builder.toString();
 	}
 
 	public int getYahtzees() {
-		int yahtzeeScore = getScore(Game.Play.YAHTZEE);
+		int yahtzeeScore = playScores[Game.Play.YAHTZEE.ordinal()];
 		return yahtzeeScore > 0 ? ((yahtzeeScore - 50) / 100) + 1 : 0;
 	}
 
@@ -80,7 +117,7 @@ public class Player implements Comparable<Player> {
 	}
 
 	public boolean hasUpperScoreBonus() {
-		return Scorer.hasUpperScoreBonus(Scorer.calcUpperScore(playScores));
+		return Scorer.hasUpperScoreBonus(upperScore);
 	}
 
 	public String getPlayScoreString() {
@@ -112,7 +149,7 @@ public class Player implements Comparable<Player> {
 
 	@Override
 	public int compareTo(Player o) {
-		return o.score() - score();
+		return Integer.compare(o.score(), score());
 	}
 
 }
@@ -0,0 +1,53 @@
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Creates the random generators used to roll dice. Generators are fast
+ * splittable LXM generators that are not thread safe, so each game (or other
+ * single threaded user) should have its own.
+ *
+ * Seeded games derive their stream from a master seed and the index of the
+ * game alone, so a run is reproducible no matter how its games are spread over
+ * threads.
+ */
+public class RandomSource {
+
+	public static final String ALGORITHM = "L64X128MixRandom";
+
+	private static final RandomGeneratorFactory<RandomGenerator> FACTORY = RandomGeneratorFactory.of(ALGORITHM);
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private RandomSource() {
+	}
+
+	/**
+	 * Returns a generator with an unpredictable seed.
+	 */
+	public static RandomGenerator create() {
+		return FACTORY.create();
+	}
+
+	public static RandomGenerator create(long seed) {
+		return FACTORY.create(seed);
+	}
+
+	/**
+	 * Returns the generator of a single game of a seeded run.
+	 *
+	 * @param masterSeed the seed of the whole run
+	 * @param game the index of the game within the run
+	 * @return a generator independent of those of every other game
+	 */
+	public static RandomGenerator forGame(long masterSeed, long game) {
+		return create(mix(masterSeed + (game + 1) * GOLDEN_GAMMA));
+	}
+
+	/**
+	 * The SplitMix64 finalizer, spreading nearby inputs across the whole range.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
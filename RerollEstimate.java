@@ -0,0 +1,184 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The sampled scores of each open play after rerolling, as estimated by the
+ * RerollEstimator. Every trial scores every play, so each play keeps a count of
+ * the trials ending on each score from which its mean and confidence interval
+ * are taken. Estimates collected by separate workers are combined with merge.
+ */
+public class RerollEstimate {
+
+	/**
+	 * The normal quantile of a two sided 95% confidence interval.
+	 */
+	public static final double Z_95 = 1.959963984540054;
+
+	private final Game.Play[] plays;
+	private final long[] sums;
+	private final long[] squareSums;
+	// counts[p][s] trials scored s on plays[p]
+	private final long[][] counts;
+	private long trials;
+	private boolean converged;
+	private Duration elapsed = Duration.ZERO;
+
+	public RerollEstimate(Game.Play[] plays) {
+		this.plays = plays.clone();
+		this.sums = new long[plays.length];
+		this.squareSums = new long[plays.length];
+		this.counts = new long[plays.length][];
+		Arrays.fill(counts, new long[0]);
+	}
+
+	/**
+	 * Adds a trial, scores[p] being the score of plays[p] on the trial's dice.
+	 */
+	public void add(int[] scores) {
+		trials++;
+		for (int p = 0; p < plays.length; p++) {
+			int score = scores[p];
+			sums[p] += score;
+			squareSums[p] += (long) score * score;
+			counts[p] = Histograms.count(counts[p], score);
+		}
+	}
+
+	public void merge(RerollEstimate other) {
+		if (!Arrays.equals(plays, other.plays)) {
+			throw new IllegalArgumentException("Cannot merge estimates of different plays");
+		}
+		trials += other.trials;
+		for (int p = 0; p < plays.length; p++) {
+			sums[p] += other.sums[p];
+			squareSums[p] += other.squareSums[p];
+			counts[p] = Histograms.merge(counts[p], other.counts[p]);
+		}
+	}
+
+	/**
+	 * Removes every trial, keeping the plays.
+	 */
+	void clear() {
+		trials = 0;
+		Arrays.fill(sums, 0);
+		Arrays.fill(squareSums, 0);
+		for (long[] playCounts : counts) {
+			Arrays.fill(playCounts, 0);
+		}
+	}
+
+	void finish(boolean converged, Duration elapsed) {
+		this.converged = converged;
+		this.elapsed = elapsed;
+	}
+
+	public long getTrials() {
+		return trials;
+	}
+
+	/**
+	 * Returns true if the estimator stopped because every interval was narrow
+	 * enough, false if it ran out of time.
+	 */
+	public boolean isConverged() {
+		return converged;
+	}
+
+	public Duration getElapsed() {
+		return elapsed;
+	}
+
+	/**
+	 * Returns the estimated plays, highest mean score first.
+	 */
+	public List<Game.Play> getPlays() {
+		List<Game.Play> sorted = new ArrayList<>(Arrays.asList(plays));
+		sorted.sort(Comparator.comparingDouble(this::getMean).reversed());
+		return Collections.unmodifiableList(sorted);
+	}
+
+	public Game.Play getBestPlay() {
+		return plays.length == 0 ? null : getPlays().get(0);
+	}
+
+	public double getMean(Game.Play play) {
+		return trials == 0 ? Double.NaN : (double) sums[indexOf(play)] / trials;
+	}
+
+	/**
+	 * Returns the sample standard deviation of the play's score.
+	 */
+	public double getStandardDeviation(Game.Play play) {
+		if (trials < 2) {
+			return trials == 0 ? Double.NaN : 0;
+		}
+		int p = indexOf(play);
+		double mean = (double) sums[p] / trials;
+		double variance = ((double) squareSums[p] - mean * sums[p]) / (trials - 1);
+		return Math.sqrt(Math.max(0, variance));
+	}
+
+	/**
+	 * Returns half the width of the 95% confidence interval of the play's mean.
+	 */
+	public double getMargin(Game.Play play) {
+		return trials == 0 ? Double.POSITIVE_INFINITY : Z_95 * getStandardDeviation(play) / Math.sqrt(trials);
+	}
+
+	public double getLower(Game.Play play) {
+		return getMean(play) - getMargin(play);
+	}
+
+	public double getUpper(Game.Play play) {
+		return getMean(play) + getMargin(play);
+	}
+
+	/**
+	 * Returns the width of the widest confidence interval of any play.
+	 */
+	public double getWidth() {
+		double width = 0;
+		for (Game.Play play : plays) {
+			width = Math.max(width, 2 * getMargin(play));
+		}
+		return width;
+	}
+
+	/**
+	 * Returns the fraction of trials scoring exactly the score on the play.
+	 */
+	public double getProbability(Game.Play play, int score) {
+		long[] playCounts = counts[indexOf(play)];
+		return score < 0 || score >= playCounts.length || trials == 0 ? 0 : (double) playCounts[score] / trials;
+	}
+
+	/**
+	 * Returns the fraction of trials ending on each score of the play.
+	 */
+	public SortedMap<Integer, Double> getDistribution(Game.Play play) {
+		SortedMap<Integer, Double> distribution = new TreeMap<>();
+		long[] playCounts = counts[indexOf(play)];
+		for (int s = 0; s < playCounts.length; s++) {
+			if (playCounts[s] > 0) {
+				distribution.put(s, (double) playCounts[s] / trials);
+			}
+		}
+		return distribution;
+	}
+
+	private int indexOf(Game.Play play) {
+		for (int p = 0; p < plays.length; p++) {
+			if (plays[p] == play) {
+				return p;
+			}
+		}
+		throw new IllegalArgumentException(play + " was not estimated");
+	}
+}
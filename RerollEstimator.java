@@ -0,0 +1,210 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Estimates the score of each open play by sampling rerolls, for any dice
+ * rather than only those the RerollModel tables exactly. A trial rerolls the
+ * dice set rolling, then lets a Strategy choose the holds of the remaining
+ * rerolls, and scores every open play on the final dice.
+ *
+ * Trials run in batches on a fixed pool of workers, each rolling its own copy of
+ * the dice. The pool lives as long as the estimator, so a decision does not
+ * wait for threads to start, but threads idle for IDLE_SECONDS exit so an
+ * estimator left unclosed holds none. Closing the estimator stops the pool. After every batch a worker merges into the shared estimate and the
+ * run stops once every confidence interval is as narrow as the target or the
+ * time budget is spent, whichever comes first, keeping the time a decision
+ * waits bounded however costly the dice are to simulate.
+ */
+public class RerollEstimator implements AutoCloseable {
+
+	public static final long IDLE_SECONDS = 60;
+
+	private static final int BATCH_SIZE = 256;
+	// intervals are not trusted to stop a run before this many trials
+	private static final int MIN_TRIALS = 1024;
+
+	private final Supplier<Strategy> strategies;
+	private final int threads;
+	private final ExecutorService pool;
+
+	/**
+	 * @param strategies supplies the Strategy choosing the later rerolls of each
+	 * worker, so strategies need not be thread safe
+	 * @param threads the number of workers to run trials on
+	 */
+	public RerollEstimator(Supplier<Strategy> strategies, int threads) {
+		if (null == strategies) {
+			throw new NullPointerException("RerollEstimator strategies cannot be null");
+		}
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Cannot estimate with less than one thread");
+		}
+		this.strategies = strategies;
+		this.threads = threads;
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, IDLE_SECONDS, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<>(), task -> {
+				Thread thread = new Thread(task, "reroll-estimator-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		pool.allowCoreThreadTimeOut(true);
+		this.pool = pool;
+	}
+
+	public RerollEstimator(Supplier<Strategy> strategies) {
+		this(strategies, Runtime.getRuntime().availableProcessors());
+	}
+
+	public RerollEstimator() {
+		this(GreedyStrategy::new);
+	}
+
+	/**
+	 * Estimates the score of each open play of the player after rerolling the
+	 * dice set rolling, as the REROLL action of Game would, and then following
+	 * the Strategy for the rerolls left after it. Dice with none set rolling are
+	 * kept, so their scores are exact. The dice and player are not changed.
+	 *
+	 * @param player the player taking the round
+	 * @param dice the current dice and hold
+	 * @param rerolls the rerolls remaining, including the one about to be taken
+	 * @param budget the longest to sample for
+	 * @param targetWidth the width of 95% confidence interval to stop at, or 0 to
+	 * sample for the whole budget
+	 * @return the estimate of every open play
+	 */
+	public RerollEstimate estimate(Player player, Dice dice, int rerolls, Duration budget, double targetWidth) {
+		if (null == player || null == dice) {
+			throw new NullPointerException("Estimated player and dice cannot be null");
+		}
+		if (null == budget) {
+			throw new NullPointerException("Estimate budget cannot be null");
+		}
+		if (budget.isNegative() || budget.isZero()) {
+			throw new IllegalArgumentException("Cannot estimate without a positive budget");
+		}
+		if (rerolls < 0) {
+			throw new IllegalArgumentException("Cannot estimate a negative number of rerolls");
+		}
+		if (targetWidth < 0 || Double.isNaN(targetWidth)) {
+			throw new IllegalArgumentException("Target interval width " + targetWidth + " is negative");
+		}
+		Game.Play[] plays = getOpenPlays(player);
+		long start = System.nanoTime();
+		RerollEstimate estimate = new RerollEstimate(plays);
+		if (rerolls == 0 || !dice.isAnyRolling()) {
+			int[] scores = new int[plays.length];
+			score(player, plays, dice.analyze(), scores);
+			estimate.add(scores);
+			estimate.finish(true, Duration.ofNanos(System.nanoTime() - start));
+			return estimate;
+		}
+
+		long deadline = start + budget.toNanos();
+		AtomicBoolean converged = new AtomicBoolean();
+		Workers.run(pool, "Estimate", threads, worker -> {
+			work(player, dice, rerolls, plays, estimate, deadline, targetWidth, converged);
+			return null;
+		});
+		estimate.finish(converged.get(), Duration.ofNanos(System.nanoTime() - start));
+		return estimate;
+	}
+
+	/**
+	 * Stops the pool trials are run on.
+	 */
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	private void work(Player player, Dice dice, int rerolls, Game.Play[] plays, RerollEstimate estimate,
+			long deadline, double targetWidth, AtomicBoolean converged) {
+		Strategy strategy = strategies.get();
+		Dice trial = copyOf(dice, RandomSource.create());
+		List<Die> trialDice = trial.getDice();
+		int[] faces = dice.getFaces();
+		boolean[] rolling = new boolean[faces.length];
+		for (int i = 0; i < faces.length; i++) {
+			rolling[i] = dice.getDice().get(i).isRolling();
+		}
+		RerollEstimate batch = new RerollEstimate(plays);
+		int[] scores = new int[plays.length];
+		// every worker completes a batch, so even a spent budget has a sample
+		do {
+			for (int t = 0; t < BATCH_SIZE; t++) {
+				for (int i = 0; i < faces.length; i++) {
+					Die die = trialDice.get(i);
+					die.setFace(faces[i]);
+					die.setRolling(rolling[i]);
+				}
+				trial.roll();
+				for (int r = rerolls - 1; r > 0; r--) {
+					trial.setAllIsRolling(false);
+					if (!strategy.chooseReroll(player, trial, r) || !trial.isAnyRolling()) {
+						break;
+					}
+					trial.roll();
+				}
+				score(player, plays, trial.analyze(), scores);
+				batch.add(scores);
+			}
+			synchronized (estimate) {
+				estimate.merge(batch);
+				if (estimate.getTrials() >= MIN_TRIALS && estimate.getWidth() <= targetWidth) {
+					converged.set(true);
+				}
+			}
+			batch.clear();
+		} while (!converged.get() && System.nanoTime() - deadline < 0);
+	}
+
+	/**
+	 * Scores every open play on the roll. A bonus yahtzee scores its bonus in
+	 * addition to the play filled alongside it, as Game.playerRound does.
+	 */
+	private static void score(Player player, Game.Play[] plays, RollAnalysis roll, int[] scores) {
+		boolean isBonusYahtzee = player.hadYahtzee() && roll.isYahtzee();
+		int bonus = isBonusYahtzee ? Scorer.score(Game.Play.YAHTZEE, player, roll, true) : 0;
+		for (int p = 0; p < plays.length; p++) {
+			scores[p] = Scorer.score(plays[p], player, roll, isBonusYahtzee) + bonus;
+		}
+	}
+
+	private static Game.Play[] getOpenPlays(Player player) {
+		List<Game.Play> open = new ArrayList<>();
+		for (Game.Play play : Game.Play.values()) {
+			if ((player.getOpenPlays() & (1 << play.ordinal())) != 0) {
+				open.add(play);
+			}
+		}
+		if (open.isEmpty()) {
+			throw new IllegalArgumentException(player.getName() + " has no open plays to estimate");
+		}
+		return open.toArray(new Game.Play[0]);
+	}
+
+	/**
+	 * Returns new dice of the same sides in the same order, rolling with the
+	 * generator.
+	 */
+	private static Dice copyOf(Dice dice, RandomGenerator random) {
+		Map<Integer, Integer> diceMap = new LinkedHashMap<>();
+		for (Die die : dice.getDice()) {
+			diceMap.merge(die.getSides(), 1, Integer::sum);
+		}
+		return new Dice(diceMap, random);
+	}
+}
@@ -0,0 +1,304 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * The exact outcomes of rerolling standard dice. A reroll only depends on the
+ * faces held, its keep, so the distribution over resulting hands is stored once
+ * per keep, sparsely as the hands it can reach and their probability. Each of
+ * the 32 hold masks of every hand maps to its keep.
+ *
+ * Hold masks set bit i to hold the die at sorted position i of the HandIndex,
+ * so 0b00111 holds the three lowest dice. The model is built once, with the
+ * distributions of the keeps computed in parallel.
+ */
+public class RerollModel {
+
+	public static final int HOLDS = 1 << Game.DICE_COUNT;
+
+	// every multiset of zero to DICE_COUNT held faces
+	private final int keepCount;
+	private final short[] keepByKey;
+	private final int[] keepSizes;
+	private final int emptyKeep;
+	// the keep of every hand and hold mask
+	private final short[] handHoldKeeps;
+	// the hands a keep can roll into, with their probability
+	private final int[] outcomeStart;
+	private final int[] outcomeHands;
+	private final double[] outcomeProbabilities;
+	// the distinct keeps of each hand
+	private final int[] handKeepStart;
+	private final int[] handKeeps;
+
+	private static final class Holder {
+		private static final RerollModel MODEL = new RerollModel();
+	}
+
+	private RerollModel() {
+		keepByKey = new short[HandIndex.getKey(HandIndex.SIZE - 1) + 1];
+		Arrays.fill(keepByKey, (short) -1);
+		List<Integer> keepKeys = new ArrayList<>();
+		List<Integer> sizes = new ArrayList<>();
+		addKeeps(keepKeys, sizes, 1, 0, 0);
+		keepCount = keepKeys.size();
+		keepSizes = new int[keepCount];
+		for (int i = 0; i < keepCount; i++) {
+			keepByKey[keepKeys.get(i)] = (short) i;
+			keepSizes[i] = sizes.get(i);
+		}
+		emptyKeep = keepByKey[0];
+
+		double[][] distributions = IntStream.range(0, keepCount).parallel()
+			.mapToObj(keep -> {
+				int rolled = Game.DICE_COUNT - keepSizes[keep];
+				double[] probabilities = new double[HandIndex.SIZE];
+				addOutcomes(probabilities, keepKeys.get(keep), rolled, Math.pow(Game.DICE_SIDES, -rolled));
+				return probabilities;
+			})
+			.toArray(double[][]::new);
+		outcomeStart = new int[keepCount + 1];
+		int outcomes = 0;
+		for (int keep = 0; keep < keepCount; keep++) {
+			outcomeStart[keep] = outcomes;
+			for (double probability : distributions[keep]) {
+				outcomes += probability > 0 ? 1 : 0;
+			}
+		}
+		outcomeStart[keepCount] = outcomes;
+		outcomeHands = new int[outcomes];
+		outcomeProbabilities = new double[outcomes];
+		for (int keep = 0; keep < keepCount; keep++) {
+			int i = outcomeStart[keep];
+			for (int hand = 0; hand < HandIndex.SIZE; hand++) {
+				if (distributions[keep][hand] > 0) {
+					outcomeHands[i] = hand;
+					outcomeProbabilities[i++] = distributions[keep][hand];
+				}
+			}
+		}
+
+		handHoldKeeps = new short[HandIndex.SIZE * HOLDS];
+		handKeepStart = new int[HandIndex.SIZE + 1];
+		List<Integer> keeps = new ArrayList<>();
+		for (int hand = 0; hand < HandIndex.SIZE; hand++) {
+			handKeepStart[hand] = keeps.size();
+			for (int held = 0; held < HOLDS; held++) {
+				int key = 0;
+				for (int i = 0; i < Game.DICE_COUNT; i++) {
+					if ((held & (1 << i)) != 0) {
+						key += HandIndex.getKeyWeight(HandIndex.getFace(hand, i));
+					}
+				}
+				int keep = keepByKey[key];
+				handHoldKeeps[hand * HOLDS + held] = (short) keep;
+				if (!keeps.subList(handKeepStart[hand], keeps.size()).contains(keep)) {
+					keeps.add(keep);
+				}
+			}
+		}
+		handKeepStart[HandIndex.SIZE] = keeps.size();
+		handKeeps = keeps.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Returns the model, building it on first use.
+	 */
+	public static RerollModel get() {
+		return Holder.MODEL;
+	}
+
+	private static void addKeeps(List<Integer> keys, List<Integer> sizes, int face, int key, int size) {
+		if (face > Game.DICE_SIDES) {
+			keys.add(key);
+			sizes.add(size);
+			return;
+		}
+		for (int count = 0; size + count <= Game.DICE_COUNT; count++) {
+			addKeeps(keys, sizes, face + 1, key + count * HandIndex.getKeyWeight(face), size + count);
+		}
+	}
+
+	private static void addOutcomes(double[] probabilities, int key, int rolled, double probability) {
+		if (rolled == 0) {
+			probabilities[HandIndex.indexOfKey(key)] += probability;
+			return;
+		}
+		for (int face = 1; face <= Game.DICE_SIDES; face++) {
+			addOutcomes(probabilities, key + HandIndex.getKeyWeight(face), rolled - 1, probability);
+		}
+	}
+
+	public int getKeepCount() {
+		return keepCount;
+	}
+
+	/**
+	 * Returns the keep of rerolling nothing held, the first roll of a round.
+	 */
+	public int getEmptyKeep() {
+		return emptyKeep;
+	}
+
+	/**
+	 * Returns the keep of a hand when holding the sorted dice positions set in
+	 * the held mask.
+	 */
+	public int getKeep(int hand, int held) {
+		if (held < 0 || held >= HOLDS) {
+			throw new IllegalArgumentException("Hold mask " + held + " is out of range");
+		}
+		return handHoldKeeps[hand * HOLDS + held];
+	}
+
+	/**
+	 * Returns the keep holding the faces summing to the HandIndex key weights.
+	 */
+	public int getKeepOfKey(int key) {
+		return keepByKey[key];
+	}
+
+	/**
+	 * Returns the keep of the standard dice holding every die that is not
+	 * rolling.
+	 */
+	public int getKeep(Dice dice) {
+		if (dice.getHandIndex() < 0) {
+			throw new IllegalArgumentException("Rerolls are only modelled for standard dice");
+		}
+		int key = 0;
+		for (Die die : dice.getDice()) {
+			if (!die.isRolling()) {
+				key += HandIndex.getKeyWeight(die.getFace());
+			}
+		}
+		return keepByKey[key];
+	}
+
+	/**
+	 * Returns the number of dice the keep holds.
+	 */
+	public int getKeepSize(int keep) {
+		return keepSizes[keep];
+	}
+
+	/**
+	 * Outcomes of the keep are the indices from getOutcomeStart(keep) up to
+	 * getOutcomeStart(keep + 1), each a hand and its probability.
+	 */
+	public int getOutcomeStart(int keep) {
+		return outcomeStart[keep];
+	}
+
+	public int getOutcomeHand(int outcome) {
+		return outcomeHands[outcome];
+	}
+
+	public double getOutcomeProbability(int outcome) {
+		return outcomeProbabilities[outcome];
+	}
+
+	/**
+	 * Returns the probability of each hand after holding the sorted positions of
+	 * the hand set in the held mask and rerolling the rest.
+	 */
+	public double[] getDistribution(int hand, int held) {
+		double[] distribution = new double[HandIndex.SIZE];
+		int keep = getKeep(hand, held);
+		for (int i = outcomeStart[keep]; i < outcomeStart[keep + 1]; i++) {
+			distribution[outcomeHands[i]] = outcomeProbabilities[i];
+		}
+		return distribution;
+	}
+
+	/**
+	 * Returns the exact probability of ending on a target hand, rerolling first
+	 * with the held mask then holding whatever gives the best chance for each of
+	 * the remaining rerolls. For example the chance of a large straight within two
+	 * rerolls holding the three lowest dice is
+	 *
+	 * getProbability(hand, 0b00111, 2, h -> Scorer.getBaseScore(Game.Play.STRAIGHT_5, h) > 0)
+	 *
+	 * @param hand the current hand
+	 * @param held the sorted positions held for the first reroll
+	 * @param rerolls the rerolls remaining, at least one
+	 * @param target the hands aimed for
+	 * @return the probability of holding a target hand after the rerolls
+	 */
+	public double getProbability(int hand, int held, int rerolls, IntPredicate target) {
+		if (rerolls < 1) {
+			throw new IllegalArgumentException("At least one reroll is needed to reroll");
+		}
+		return getExpected(getKeep(hand, held), getBestProbabilities(rerolls - 1, target));
+	}
+
+	/**
+	 * Returns the exact probability of ending on a target hand from the dice,
+	 * rerolling the dice set rolling first, as getProbability(int, int, int,
+	 * IntPredicate).
+	 */
+	public double getProbability(Dice dice, int rerolls, IntPredicate target) {
+		if (rerolls < 1) {
+			throw new IllegalArgumentException("At least one reroll is needed to reroll");
+		}
+		return getExpected(getKeep(dice), getBestProbabilities(rerolls - 1, target));
+	}
+
+	/**
+	 * Returns the best probability of ending on a target hand from every hand
+	 * with the rerolls remaining.
+	 */
+	public double[] getBestProbabilities(int rerolls, IntPredicate target) {
+		double[] hands = new double[HandIndex.SIZE];
+		for (int hand = 0; hand < HandIndex.SIZE; hand++) {
+			hands[hand] = target.test(hand) ? 1 : 0;
+		}
+		double[] keeps = new double[keepCount];
+		for (int r = 0; r < rerolls; r++) {
+			for (int keep = 0; keep < keepCount; keep++) {
+				keeps[keep] = getExpected(keep, hands);
+			}
+			for (int hand = 0; hand < HandIndex.SIZE; hand++) {
+				double best = 0;
+				for (int i = handKeepStart[hand]; i < handKeepStart[hand + 1]; i++) {
+					best = Math.max(best, keeps[handKeeps[i]]);
+				}
+				hands[hand] = best;
+			}
+		}
+		return hands;
+	}
+
+	/**
+	 * Returns the expected hand value of rerolling everything but the keep.
+	 */
+	public double getExpected(int keep, double[] handValues) {
+		double expected = 0;
+		for (int i = outcomeStart[keep]; i < outcomeStart[keep + 1]; i++) {
+			expected += outcomeProbabilities[i] * handValues[outcomeHands[i]];
+		}
+		return expected;
+	}
+
+	int[] getOutcomeStarts() {
+		return outcomeStart;
+	}
+
+	int[] getOutcomeHands() {
+		return outcomeHands;
+	}
+
+	double[] getOutcomeProbabilities() {
+		return outcomeProbabilities;
+	}
+
+	int[] getHandKeepStarts() {
+		return handKeepStart;
+	}
+
+	int[] getHandKeeps() {
+		return handKeeps;
+	}
+}
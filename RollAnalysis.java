@@ -0,0 +1,97 @@
+/**
+ * The facts about a roll every play is scored from, taken once from the Dice
+ * after the roll and shared by every Scorable and Game.canPlay until the faces
+ * next change.
+ */
+public class RollAnalysis {
+
+	private static final DiceEvaluator EVALUATOR = new DiceEvaluator();
+
+	private final int diceCount;
+	private final int[] faceCounts;
+	private final int sum;
+	private final int maxKind;
+	private final int longestStraight;
+	private final boolean isHouse;
+	private final int handIndex;
+	private final int firstFace;
+
+	RollAnalysis(Dice dice) {
+		this.diceCount = dice.getDice().size();
+		this.faceCounts = new int[dice.getMaxDieSides() + 1];
+		for (int face = 1; face < faceCounts.length; face++) {
+			faceCounts[face] = dice.getFaceCount(face);
+		}
+		this.sum = dice.sumAll();
+		this.maxKind = dice.getMaxKind();
+		this.longestStraight = dice.getLongestStraight();
+		this.isHouse = EVALUATOR.isHouse(dice);
+		this.handIndex = dice.getHandIndex();
+		this.firstFace = dice.getDice().get(0).getFace();
+	}
+
+	public int getDiceCount() {
+		return diceCount;
+	}
+
+	/**
+	 * Returns the number of dice showing the face.
+	 */
+	public int getFaceCount(int face) {
+		return face < 1 || face >= faceCounts.length ? 0 : faceCounts[face];
+	}
+
+	public int getSum() {
+		return sum;
+	}
+
+	/**
+	 * Returns the most dice showing a single face.
+	 */
+	public int getMaxKind() {
+		return maxKind;
+	}
+
+	public boolean isKind(int kind) {
+		return maxKind >= kind;
+	}
+
+	/**
+	 * Returns the length of the longest run of consecutive faces showing.
+	 */
+	public int getLongestStraight() {
+		return longestStraight;
+	}
+
+	public boolean isStraight(int length) {
+		return longestStraight >= length;
+	}
+
+	/**
+	 * Returns true if the roll is a full house, as decided by DiceEvaluator.
+	 */
+	public boolean isHouse() {
+		return isHouse;
+	}
+
+	/**
+	 * Returns true if every die shows the same face.
+	 */
+	public boolean isYahtzee() {
+		return maxKind == diceCount;
+	}
+
+	/**
+	 * Returns the face every die shows, or -1 if the roll is not a yahtzee.
+	 */
+	public int getYahtzeeFace() {
+		return isYahtzee() ? firstFace : -1;
+	}
+
+	/**
+	 * Returns the HandIndex of standard dice, or -1 for any other dice.
+	 */
+	public int getHandIndex() {
+		return handIndex;
+	}
+}
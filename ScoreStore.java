@@ -0,0 +1,610 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A persistent all time leaderboard of finished games, kept in a directory and
+ * written as a GameListener.
+ *
+ * Every score is appended to the active segment, which is sealed once it holds
+ * SEGMENT_ENTRIES scores. Queries never read the segments: the best scores are
+ * kept in memory in a bounded sorted set, and the best score of each player in
+ * a map, so a top 100 query costs the same for a thousand scores or a hundred
+ * million.
+ *
+ * Sealing a segment hands the compaction thread a copy of the index as of the
+ * end of that segment. It writes the copy to the index file, so opening the
+ * store reads the index and only the segments written after it, then merges
+ * runs of MERGE_FACTOR sealed segments of a similar size into one. Each score
+ * is so rewritten a logarithmic number of times, and the directory holds a
+ * logarithmic number of segments.
+ *
+ * A store holds an exclusive lock on LOCK_FILE until closed, so a second store
+ * on the same directory, in this process or another, fails to open rather than
+ * writing over the first store's segments.
+ */
+public class ScoreStore implements GameListener, Closeable {
+
+	public static final int DEFAULT_CAPACITY = 1000;
+	public static final int SEGMENT_ENTRIES = 1 << 16;
+	public static final int MERGE_FACTOR = 8;
+	// a record, name included, must fit the write buffer
+	public static final int MAX_NAME_BYTES = ScoreStore.BUFFER_SIZE - ScoreStore.RECORD_SIZE;
+
+	static final int SEGMENT_MAGIC = 0x31535359;
+	static final int INDEX_MAGIC = 0x31495359;
+	static final int VERSION = 1;
+	static final String INDEX_FILE = "index.dat";
+	static final String LOCK_FILE = "store.lock";
+
+	private static final int SEGMENT_HEADER_SIZE = Integer.BYTES + 1;
+	// the bytes of an index record besides the name, more than a segment record
+	private static final int RECORD_SIZE = Short.BYTES + Integer.BYTES + 2 + Long.BYTES;
+	private static final int BUFFER_SIZE = 8192;
+	private static final long TIER_BYTES = 1 << 20;
+	private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)-(\\d+)\\.log");
+	private static final Comparator<Entry> RANK = Comparator.comparingInt(Entry::getScore).reversed()
+		.thenComparingLong(Entry::getSequence);
+
+	private final Path directory;
+	private final int capacity;
+	private final FileChannel lockChannel;
+	private final TreeSet<Entry> top = new TreeSet<>(RANK);
+	private final Map<String, Entry> bests = new HashMap<>();
+	private final List<Segment> sealed = new ArrayList<>();
+	private final ExecutorService compactor;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+	private long count;
+	private long indexed = -1;
+	private long nextSegment;
+	private FileChannel active;
+	private Segment activeSegment;
+	private IOException failure;
+
+	private ScoreStore(Path directory, int capacity, FileChannel lockChannel) {
+		this.directory = directory;
+		this.capacity = capacity;
+		this.lockChannel = lockChannel;
+		this.compactor = Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task, "score-compactor");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Opens the store in the directory, creating it if there is none.
+	 */
+	public static ScoreStore open(Path directory) throws IOException {
+		return open(directory, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param directory the directory of the store
+	 * @param capacity the most scores a top query may ask for
+	 * @return the store, with its index loaded
+	 */
+	public static ScoreStore open(Path directory, int capacity) throws IOException {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("ScoreStore capacity must be positive");
+		}
+		Files.createDirectories(directory);
+		FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+			StandardOpenOption.WRITE);
+		try {
+			FileLock lock;
+			try {
+				lock = lockChannel.tryLock();
+			} catch (OverlappingFileLockException e) {
+				lock = null;
+			}
+			if (null == lock) {
+				throw new IOException("Score store " + directory + " is already open in another game");
+			}
+			ScoreStore store = new ScoreStore(directory, capacity, lockChannel);
+			store.load();
+			return store;
+		} catch (IOException | RuntimeException e) {
+			lockChannel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Records the score of each player of a finished game. Quit games are not
+	 * recorded.
+	 */
+	@Override
+	public void gameEnded(Player[] players, boolean isQuit) {
+		if (isQuit) {
+			return;
+		}
+		for (Player player : players) {
+			add(player);
+		}
+		flush();
+	}
+
+	/**
+	 * Appends the score of the player, written to the segment once flushed.
+	 */
+	public synchronized void add(Player player) {
+		add(player.getName(), player.score(), player.getYahtzees(), player.hasUpperScoreBonus());
+	}
+
+	public synchronized void add(String name, int score, int yahtzees, boolean hasUpperBonus) {
+		if (null == name) {
+			throw new NullPointerException("ScoreStore name cannot be null");
+		}
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > MAX_NAME_BYTES) {
+			throw new IllegalArgumentException("Name of " + bytes.length + " bytes is too long to store");
+		}
+		Segment segment = activeSegment();
+		int size = Short.BYTES + bytes.length + Integer.BYTES + 2;
+		if (buffer.remaining() < size) {
+			flush();
+		}
+		segment.bytes += size;
+		buffer.putShort((short) bytes.length).put(bytes).putInt(score).put((byte) yahtzees)
+			.put((byte) (hasUpperBonus ? 1 : 0));
+		index(new Entry(name, score, yahtzees, hasUpperBonus, count++));
+		if (++segment.entries >= SEGMENT_ENTRIES) {
+			seal();
+		}
+	}
+
+	/**
+	 * @param k the number of scores, at most the capacity of the store
+	 * @return the best k scores, best first, earlier games first among equal scores
+	 */
+	public synchronized List<Entry> getTop(int k) {
+		if (k < 0 || k > capacity) {
+			throw new IllegalArgumentException("Top " + k + " is outside the capacity of " + capacity);
+		}
+		List<Entry> entries = new ArrayList<>(Math.min(k, top.size()));
+		Iterator<Entry> iterator = top.iterator();
+		while (entries.size() < k && iterator.hasNext()) {
+			entries.add(iterator.next());
+		}
+		return entries;
+	}
+
+	/**
+	 * Returns the best score of the player, or null if the player has none.
+	 */
+	public synchronized Entry getBest(String name) {
+		return bests.get(name);
+	}
+
+	public synchronized long getCount() {
+		return count;
+	}
+
+	public synchronized int getPlayerCount() {
+		return bests.size();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of segments, sealed and active, in the directory.
+	 */
+	public synchronized int getSegmentCount() {
+		synchronized (sealed) {
+			return sealed.size() + (null == active ? 0 : 1);
+		}
+	}
+
+	/**
+	 * Writes the appended scores to the active segment.
+	 */
+	public synchronized void flush() {
+		if (buffer.position() == 0) {
+			return;
+		}
+		try {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				active.write(buffer);
+			}
+			buffer.clear();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Seals the active segment, waits for compaction to finish, then releases
+	 * the directory.
+	 *
+	 * @throws IOException if compaction failed, leaving the store readable but
+	 * with more segments to read when next opened
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (null != active) {
+				seal();
+			}
+		}
+		compactor.shutdown();
+		try {
+			compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		lockChannel.close();
+		synchronized (this) {
+			if (null != failure) {
+				throw failure;
+			}
+		}
+	}
+
+	private void index(Entry entry) {
+		if (top.size() < capacity) {
+			top.add(entry);
+		} else if (RANK.compare(entry, top.last()) < 0) {
+			top.add(entry);
+			top.pollLast();
+		}
+		bests.merge(entry.getName(), entry, (best, e) -> e.getScore() > best.getScore() ? e : best);
+	}
+
+	private Segment activeSegment() {
+		if (null == active) {
+			activeSegment = new Segment(nextSegment, nextSegment);
+			nextSegment++;
+			try {
+				active = FileChannel.open(activeSegment.path(directory), StandardOpenOption.CREATE_NEW,
+					StandardOpenOption.WRITE);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			buffer.putInt(SEGMENT_MAGIC).put((byte) VERSION);
+			activeSegment.bytes = SEGMENT_HEADER_SIZE;
+		}
+		return activeSegment;
+	}
+
+	/**
+	 * Closes the active segment and queues compaction with the index as of its
+	 * end.
+	 */
+	private void seal() {
+		flush();
+		try {
+			active.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		active = null;
+		synchronized (sealed) {
+			sealed.add(activeSegment);
+		}
+		Snapshot snapshot = new Snapshot(activeSegment.last, count, new ArrayList<>(top),
+			new ArrayList<>(bests.values()));
+		compactor.execute(() -> compact(snapshot));
+	}
+
+	private void compact(Snapshot snapshot) {
+		try {
+			writeIndex(snapshot);
+			while (merge(snapshot.segment)) {
+				// merge the next run
+			}
+		} catch (IOException e) {
+			synchronized (this) {
+				if (null == failure) {
+					failure = e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Merges the oldest run of MERGE_FACTOR adjacent segments of a similar size,
+	 * covered by the index.
+	 *
+	 * @return true if a run was merged
+	 */
+	private boolean merge(long indexedSegment) throws IOException {
+		List<Segment> run;
+		synchronized (sealed) {
+			run = findRun(indexedSegment);
+		}
+		if (null == run) {
+			return false;
+		}
+		Segment merged = new Segment(run.get(0).first, run.get(run.size() - 1).last);
+		merged.bytes = SEGMENT_HEADER_SIZE;
+		Path temp = directory.resolve(merged.path(directory).getFileName() + ".tmp");
+		try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(SEGMENT_MAGIC).put((byte) VERSION).flip();
+			while (header.hasRemaining()) {
+				out.write(header);
+			}
+			for (Segment segment : run) {
+				try (FileChannel in = FileChannel.open(segment.path(directory), StandardOpenOption.READ)) {
+					long position = SEGMENT_HEADER_SIZE;
+					while (position < in.size()) {
+						position += in.transferTo(position, in.size() - position, out);
+					}
+				}
+				merged.bytes += segment.bytes - SEGMENT_HEADER_SIZE;
+			}
+			out.force(false);
+		}
+		Files.move(temp, merged.path(directory), StandardCopyOption.ATOMIC_MOVE);
+		synchronized (sealed) {
+			int at = sealed.indexOf(run.get(0));
+			sealed.subList(at, at + run.size()).clear();
+			sealed.add(at, merged);
+		}
+		for (Segment segment : run) {
+			Files.deleteIfExists(segment.path(directory));
+		}
+		return true;
+	}
+
+	private List<Segment> findRun(long indexedSegment) {
+		for (int i = 0; i + MERGE_FACTOR <= sealed.size(); i++) {
+			int tier = sealed.get(i).tier();
+			int j = i + 1;
+			while (j < i + MERGE_FACTOR && sealed.get(j).tier() == tier && sealed.get(j).last <= indexedSegment) {
+				j++;
+			}
+			if (j == i + MERGE_FACTOR && sealed.get(i).last <= indexedSegment) {
+				return new ArrayList<>(sealed.subList(i, j));
+			}
+		}
+		return null;
+	}
+
+	private void writeIndex(Snapshot snapshot) throws IOException {
+		Path temp = directory.resolve(INDEX_FILE + ".tmp");
+		try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buf.putInt(INDEX_MAGIC).put((byte) VERSION).putLong(snapshot.segment).putLong(snapshot.count)
+				.putInt(snapshot.top.size()).putInt(snapshot.bests.size());
+			for (Collection<Entry> entries : List.of(snapshot.top, snapshot.bests)) {
+				for (Entry entry : entries) {
+					byte[] name = entry.getName().getBytes(StandardCharsets.UTF_8);
+					if (buf.remaining() < name.length + RECORD_SIZE) {
+						write(out, buf);
+					}
+					buf.putShort((short) name.length).put(name).putInt(entry.getScore())
+						.put((byte) entry.getYahtzees()).put((byte) (entry.hasUpperBonus() ? 1 : 0))
+						.putLong(entry.getSequence());
+				}
+			}
+			write(out, buf);
+			out.force(false);
+		}
+		Files.move(temp, directory.resolve(INDEX_FILE), StandardCopyOption.ATOMIC_MOVE,
+			StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Loads the index file, then the segments after it. Segments left behind by
+	 * an interrupted merge, contained in the merged segment, are deleted.
+	 */
+	private void load() throws IOException {
+		Path indexPath = directory.resolve(INDEX_FILE);
+		if (Files.isRegularFile(indexPath)) {
+			readIndex(indexPath);
+		}
+		List<Segment> segments = new ArrayList<>();
+		try (DirectoryStream<Path> temps = Files.newDirectoryStream(directory, "*.tmp")) {
+			for (Path temp : temps) {
+				Files.delete(temp);
+			}
+		}
+		try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "segment-*.log")) {
+			for (Path path : paths) {
+				Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+				if (matcher.matches()) {
+					segments.add(new Segment(Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2))));
+				}
+			}
+		}
+		segments.sort(Comparator.comparingLong((Segment s) -> s.first).thenComparingLong(s -> -s.last));
+		long covered = -1;
+		boolean unindexed = false;
+		for (Segment segment : segments) {
+			if (segment.last <= covered) {
+				Files.delete(segment.path(directory));
+				continue;
+			}
+			covered = segment.last;
+			if (segment.first > indexed) {
+				readSegment(segment);
+				unindexed = true;
+			} else {
+				segment.bytes = Files.size(segment.path(directory));
+			}
+			sealed.add(segment);
+			nextSegment = segment.last + 1;
+		}
+		if (unindexed) {
+			Snapshot snapshot = new Snapshot(nextSegment - 1, count, new ArrayList<>(top),
+				new ArrayList<>(bests.values()));
+			compactor.execute(() -> compact(snapshot));
+		}
+	}
+
+	private void readIndex(Path path) throws IOException {
+		ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+		if (buf.getInt() != INDEX_MAGIC || buf.get() != VERSION) {
+			throw new IOException(path + " is not a score index");
+		}
+		indexed = buf.getLong();
+		count = buf.getLong();
+		int topSize = buf.getInt();
+		int bestSize = buf.getInt();
+		for (int i = 0; i < topSize + bestSize; i++) {
+			byte[] name = new byte[Short.toUnsignedInt(buf.getShort())];
+			buf.get(name);
+			Entry entry = new Entry(new String(name, StandardCharsets.UTF_8), buf.getInt(), buf.get(), buf.get() != 0,
+				buf.getLong());
+			if (i < topSize) {
+				if (top.size() < capacity) {
+					top.add(entry);
+				}
+			} else {
+				bests.put(entry.getName(), entry);
+			}
+		}
+	}
+
+	/**
+	 * Adds the scores of a segment the index does not yet cover. A score cut off
+	 * by a crash is truncated.
+	 */
+	private void readSegment(Segment segment) throws IOException {
+		Path path = segment.path(directory);
+		ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+		if (buf.remaining() >= SEGMENT_HEADER_SIZE && (buf.getInt() != SEGMENT_MAGIC || buf.get() != VERSION)) {
+			throw new IOException(path + " is not a score segment");
+		}
+		while (buf.remaining() >= Short.BYTES) {
+			int length = Short.toUnsignedInt(buf.getShort(buf.position()));
+			if (buf.remaining() < Short.BYTES + length + Integer.BYTES + 2) {
+				break;
+			}
+			byte[] name = new byte[length];
+			buf.getShort();
+			buf.get(name);
+			index(new Entry(new String(name, StandardCharsets.UTF_8), buf.getInt(), buf.get(), buf.get() != 0,
+				count++));
+		}
+		if (buf.hasRemaining() || buf.limit() < SEGMENT_HEADER_SIZE) {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				channel.truncate(buf.limit() < SEGMENT_HEADER_SIZE ? 0 : buf.position());
+			}
+		}
+		segment.bytes = Files.size(path);
+	}
+
+	private static void write(FileChannel out, ByteBuffer buf) throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) {
+			out.write(buf);
+		}
+		buf.clear();
+	}
+
+	/**
+	 * A score of a finished game. The sequence is the number of scores recorded
+	 * before it.
+	 */
+	public static final class Entry {
+
+		private final String name;
+		private final int score;
+		private final int yahtzees;
+		private final boolean hasUpperBonus;
+		private final long sequence;
+
+		Entry(String name, int score, int yahtzees, boolean hasUpperBonus, long sequence) {
+			this.name = name;
+			this.score = score;
+			this.yahtzees = yahtzees;
+			this.hasUpperBonus = hasUpperBonus;
+			this.sequence = sequence;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getScore() {
+			return score;
+		}
+
+		public int getYahtzees() {
+			return yahtzees;
+		}
+
+		public boolean hasUpperBonus() {
+			return hasUpperBonus;
+		}
+
+		public long getSequence() {
+			return sequence;
+		}
+	}
+
+	private static final class Segment {
+
+		private final long first;
+		private final long last;
+		private int entries;
+		private long bytes;
+
+		private Segment(long first, long last) {
+			this.first = first;
+			this.last = last;
+		}
+
+		private Path path(Path directory) {
+			return directory.resolve("segment-" + first + "-" + last + ".log");
+		}
+
+		/**
+		 * Segments in a tier are within a factor of MERGE_FACTOR of the same size.
+		 */
+		private int tier() {
+			int tier = 0;
+			for (long size = bytes / TIER_BYTES; size >= MERGE_FACTOR; size /= MERGE_FACTOR) {
+				tier++;
+			}
+			return tier;
+		}
+	}
+
+	private static final class Snapshot {
+
+		private final long segment;
+		private final long count;
+		private final List<Entry> top;
+		private final List<Entry> bests;
+
+		private Snapshot(long segment, long count, List<Entry> top, List<Entry> bests) {
+			this.segment = segment;
+			this.count = count;
+			this.top = top;
+			this.bests = bests;
+		}
+	}
+}
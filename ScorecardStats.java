@@ -0,0 +1,140 @@
+/**
+ * Statistics of the games matching a ScorecardStore query. Unlike
+ * SimulationResult, games may be partial: each play is averaged over the games
+ * that filled it. Statistics of separate ranges are combined with merge.
+ */
+public class ScorecardStats {
+
+	private static final int PLAYS = Game.Play.values().length;
+
+	private long games;
+	private long scoreSum;
+	private long scoreSquareSum;
+	private int minScore = Integer.MAX_VALUE;
+	private int maxScore = Integer.MIN_VALUE;
+	private long upperBonuses;
+	private long yahtzees;
+	private final long[] playFilled = new long[PLAYS];
+	private final long[] playSums = new long[PLAYS];
+	private final long[] playSquareSums = new long[PLAYS];
+	private final long[] playZeros = new long[PLAYS];
+
+	/**
+	 * Adds the scores of the games filling the play in a range.
+	 */
+	void addPlay(Game.Play play, long filled, long sum, long squareSum, long zeros) {
+		int p = play.ordinal();
+		playFilled[p] += filled;
+		playSums[p] += sum;
+		playSquareSums[p] += squareSum;
+		playZeros[p] += zeros;
+	}
+
+	void addGame(int score, boolean hasUpperBonus, int gameYahtzees) {
+		games++;
+		scoreSum += score;
+		scoreSquareSum += (long) score * score;
+		minScore = Math.min(minScore, score);
+		maxScore = Math.max(maxScore, score);
+		upperBonuses += hasUpperBonus ? 1 : 0;
+		yahtzees += gameYahtzees;
+	}
+
+	public void merge(ScorecardStats other) {
+		games += other.games;
+		scoreSum += other.scoreSum;
+		scoreSquareSum += other.scoreSquareSum;
+		minScore = Math.min(minScore, other.minScore);
+		maxScore = Math.max(maxScore, other.maxScore);
+		upperBonuses += other.upperBonuses;
+		yahtzees += other.yahtzees;
+		for (int i = 0; i < PLAYS; i++) {
+			playFilled[i] += other.playFilled[i];
+			playSums[i] += other.playSums[i];
+			playSquareSums[i] += other.playSquareSums[i];
+			playZeros[i] += other.playZeros[i];
+		}
+	}
+
+	public long getGames() {
+		return games;
+	}
+
+	public double getMeanScore() {
+		return games == 0 ? 0 : (double) scoreSum / games;
+	}
+
+	public double getScoreVariance() {
+		return variance(games, scoreSum, scoreSquareSum);
+	}
+
+	public int getMinScore() {
+		return minScore;
+	}
+
+	public int getMaxScore() {
+		return maxScore;
+	}
+
+	public double getUpperBonusRate() {
+		return games == 0 ? 0 : (double) upperBonuses / games;
+	}
+
+	/**
+	 * Returns the yahtzees per game, bonus yahtzees included.
+	 */
+	public double getYahtzeesPerGame() {
+		return games == 0 ? 0 : (double) yahtzees / games;
+	}
+
+	/**
+	 * Returns the number of games that filled the play.
+	 */
+	public long getFilled(Game.Play play) {
+		return playFilled[play.ordinal()];
+	}
+
+	public double getMeanScore(Game.Play play) {
+		int p = play.ordinal();
+		return playFilled[p] == 0 ? 0 : (double) playSums[p] / playFilled[p];
+	}
+
+	public double getVariance(Game.Play play) {
+		int p = play.ordinal();
+		return variance(playFilled[p], playSums[p], playSquareSums[p]);
+	}
+
+	/**
+	 * Returns the share of the games filling the play that scored it 0.
+	 */
+	public double getZeroRate(Game.Play play) {
+		int p = play.ordinal();
+		return playFilled[p] == 0 ? 0 : (double) playZeros[p] / playFilled[p];
+	}
+
+	private static double variance(long count, long sum, long squareSum) {
+		if (count < 2) {
+			return 0;
+		}
+		double mean = (double) sum / count;
+		return Math.max(0, (squareSum - count * mean * mean) / (count - 1));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("Games: " + games + "\n");
+		if (games > 0) {
+			builder.append(String.format("Mean Score: %.2f (variance %.2f, min %d, max %d)%n",
+				getMeanScore(), getScoreVariance(), minScore, maxScore));
+		}
+		builder.append(String.format("Upper Bonus Rate: %.4f%n", getUpperBonusRate()));
+		builder.append(String.format("Yahtzees Per Game: %.4f%n", getYahtzeesPerGame()));
+		for (Game.Play play : Game.getSortedPlays()) {
+			builder.append(DisplayUtil.pad(play.name() + ": ", 15))
+				.append(String.format("%7.3f  (variance %8.3f, %.4f zero)%n",
+					getMeanScore(play), getVariance(play), getZeroRate(play)));
+		}
+		return builder.toString();
+	}
+}
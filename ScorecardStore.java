@@ -0,0 +1,433 @@
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+/**
+ * Completed scorecards held in memory as columns, for analysing millions of
+ * games without a Player object each.
+ *
+ * Each Play is a column of one byte a game, widened to a short or an int the
+ * first time a score does not fit, with a bitmap of the games that filled the
+ * slot. A standard game so takes 13 bytes and 13 bits, where a Player takes over
+ * a hundred bytes.
+ *
+ * A query scans the games matching a filter in SCAN_GAMES blocks, reading one
+ * column at a time, and returns their ScorecardStats. The games are split into
+ * one range per thread, scanned in parallel on the store's pool of threads and
+ * merged in order. Filters are built by the store, such as yahtzeesAtLeast(2),
+ * and combined with IntPredicate.and. Games are added from a single thread;
+ * queries only read the store, so any number may run once it is loaded. Closing
+ * the store stops its pool.
+ */
+public class ScorecardStore implements GameListener, AutoCloseable {
+
+	public static final int DEFAULT_CAPACITY = 1 << 12;
+	public static final int SCAN_GAMES = 1 << 12;
+	// smaller stores are scanned on the calling thread
+	public static final int MIN_PARALLEL_GAMES = 1 << 16;
+
+	private static final Game.Play[] PLAYS = Game.Play.values();
+	private static final int ALL_PLAYS = (1 << PLAYS.length) - 1;
+	private static final int YAHTZEE = Game.Play.YAHTZEE.ordinal();
+
+	private final int threads;
+	private final ExecutorService pool;
+	private final Column[] columns = new Column[PLAYS.length];
+	private final long[][] filled = new long[PLAYS.length][];
+	private int size;
+
+	/**
+	 * @param threads the number of ranges each query is scanned in
+	 */
+	public ScorecardStore(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("ScorecardStore threads must be positive");
+		}
+		this.threads = threads;
+		AtomicInteger count = new AtomicInteger();
+		this.pool = Executors.newFixedThreadPool(threads, task -> {
+			Thread thread = new Thread(task, "scorecard-query-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		for (int p = 0; p < PLAYS.length; p++) {
+			columns[p] = new Column(DEFAULT_CAPACITY);
+			filled[p] = new long[words(DEFAULT_CAPACITY)];
+		}
+	}
+
+	public ScorecardStore() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void add(Player player) {
+		ensureCapacity(size + 1);
+		for (Game.Play play : PLAYS) {
+			if (player.isScored(play)) {
+				set(play.ordinal(), size, player.getScore(play));
+			}
+		}
+		size++;
+	}
+
+	/**
+	 * Appends the games of an archive block in block order, copying each play's
+	 * scores into its column with one resize for the whole block.
+	 */
+	public void add(GameArchive.Block block) {
+		int games = block.size();
+		ensureCapacity(size + games);
+		for (Game.Play play : PLAYS) {
+			int[] scores = block.getScores(play);
+			for (int i = 0; i < games; i++) {
+				if (block.isScored(play, i)) {
+					set(play.ordinal(), size + i, scores[i]);
+				}
+			}
+		}
+		size += games;
+	}
+
+	/**
+	 * Adds the players of every game finished without a quit.
+	 */
+	@Override
+	public void gameEnded(Player[] players, boolean isQuit) {
+		if (!isQuit) {
+			for (Player player : players) {
+				add(player);
+			}
+		}
+	}
+
+	private void set(int play, int game, int score) {
+		if (score < 0) {
+			throw new IllegalArgumentException("Cannot store negative score " + score);
+		}
+		columns[play].set(game, score);
+		filled[play][game >>> 6] |= 1L << game;
+	}
+
+	private void ensureCapacity(int games) {
+		int capacity = columns[0].capacity();
+		if (games <= capacity) {
+			return;
+		}
+		capacity = Math.max(games, capacity + (capacity >> 1));
+		for (int p = 0; p < PLAYS.length; p++) {
+			columns[p].resize(capacity);
+			filled[p] = Arrays.copyOf(filled[p], words(capacity));
+		}
+	}
+
+	/**
+	 * Releases the capacity beyond the games added.
+	 */
+	public void trimToSize() {
+		int capacity = Math.max(size, 1);
+		for (int p = 0; p < PLAYS.length; p++) {
+			columns[p].resize(capacity);
+			filled[p] = Arrays.copyOf(filled[p], words(capacity));
+		}
+	}
+
+	/**
+	 * Returns the bytes held by the columns and bitmaps.
+	 */
+	public long getBytes() {
+		long bytes = 0;
+		for (int p = 0; p < PLAYS.length; p++) {
+			bytes += columns[p].getBytes() + (long) filled[p].length * Long.BYTES;
+		}
+		return bytes;
+	}
+
+	public int getScore(Game.Play play, int game) {
+		checkGame(game);
+		return columns[play.ordinal()].get(game);
+	}
+
+	public boolean isScored(Game.Play play, int game) {
+		checkGame(game);
+		return isFilled(play.ordinal(), game);
+	}
+
+	/**
+	 * Returns the final score of the game, as Player.score.
+	 */
+	public int getTotal(int game) {
+		checkGame(game);
+		return total(game);
+	}
+
+	public Player toPlayer(int game, String name) {
+		checkGame(game);
+		Player player = new Player(name);
+		for (Game.Play play : PLAYS) {
+			if (isFilled(play.ordinal(), game)) {
+				player.play(play, columns[play.ordinal()].get(game));
+			}
+		}
+		return player;
+	}
+
+	private void checkGame(int game) {
+		if (game < 0 || game >= size) {
+			throw new IndexOutOfBoundsException("Game " + game + " is not in the store of " + size);
+		}
+	}
+
+	private boolean isFilled(int play, int game) {
+		return (filled[play][game >>> 6] & 1L << game) != 0;
+	}
+
+	private int upper(int game) {
+		int upper = 0;
+		for (int p = 0; p <= Game.Play.SIX.ordinal(); p++) {
+			upper += columns[p].get(game);
+		}
+		return upper;
+	}
+
+	private int total(int game) {
+		int total = 0;
+		for (int p = 0; p < PLAYS.length; p++) {
+			total += columns[p].get(game);
+		}
+		return total + Scorer.getUpperScoreBonus(upper(game));
+	}
+
+	/**
+	 * Returns the yahtzees scored with the YAHTZEE slot scoring yahtzeeScore,
+	 * as Player.getYahtzees.
+	 */
+	private static int yahtzees(int yahtzeeScore) {
+		return yahtzeeScore > 0 ? (yahtzeeScore - 50) / 100 + 1 : 0;
+	}
+
+	/**
+	 * Matches the games that scored at least the number of yahtzees, bonus
+	 * yahtzees included.
+	 */
+	public IntPredicate yahtzeesAtLeast(int yahtzees) {
+		return game -> yahtzees(columns[YAHTZEE].get(game)) >= yahtzees;
+	}
+
+	/**
+	 * Matches the games that filled the play with at least the score.
+	 */
+	public IntPredicate scoreAtLeast(Game.Play play, int score) {
+		int p = play.ordinal();
+		return game -> isFilled(p, game) && columns[p].get(game) >= score;
+	}
+
+	public IntPredicate totalAtLeast(int total) {
+		return game -> total(game) >= total;
+	}
+
+	public IntPredicate hasUpperBonus() {
+		return game -> Scorer.hasUpperScoreBonus(upper(game));
+	}
+
+	/**
+	 * Matches the games that filled every play.
+	 */
+	public IntPredicate isComplete() {
+		return game -> {
+			int plays = 0;
+			for (int p = 0; p < PLAYS.length; p++) {
+				plays |= isFilled(p, game) ? 1 << p : 0;
+			}
+			return plays == ALL_PLAYS;
+		};
+	}
+
+	/**
+	 * Returns the statistics of every game.
+	 */
+	public ScorecardStats query() {
+		return query(null);
+	}
+
+	/**
+	 * Returns the statistics of the games matching the filter.
+	 *
+	 * @param filter the games to include, or null for every game
+	 */
+	public ScorecardStats query(IntPredicate filter) {
+		int games = size;
+		int ranges = games < MIN_PARALLEL_GAMES ? 1 : threads;
+		if (ranges == 1) {
+			return scan(filter, 0, games);
+		}
+		ScorecardStats stats = new ScorecardStats();
+		for (ScorecardStats range : Workers.run(pool, "Query", ranges, i -> {
+			// ranges start on a bitmap word
+			int from = (int) ((long) games * i / ranges) & ~63;
+			int to = i == ranges - 1 ? games : (int) ((long) games * (i + 1) / ranges) & ~63;
+			return scan(filter, from, to);
+		})) {
+			stats.merge(range);
+		}
+		return stats;
+	}
+
+	/**
+	 * Stops the pool queries are scanned on. Queries of stores smaller than
+	 * MIN_PARALLEL_GAMES still run on the calling thread.
+	 */
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Scans the games from a multiple of 64 to another game, one block and
+	 * column at a time.
+	 */
+	private ScorecardStats scan(IntPredicate filter, int from, int to) {
+		ScorecardStats stats = new ScorecardStats();
+		int[] scores = new int[SCAN_GAMES];
+		int[] uppers = new int[SCAN_GAMES];
+		int[] lowers = new int[SCAN_GAMES];
+		long[] matched = new long[words(SCAN_GAMES)];
+		for (int start = from; start < to; start += SCAN_GAMES) {
+			int games = Math.min(SCAN_GAMES, to - start);
+			int words = words(games);
+			Arrays.fill(matched, 0, words, 0);
+			for (int i = 0; i < games; i++) {
+				if (null == filter || filter.test(start + i)) {
+					matched[i >>> 6] |= 1L << i;
+				}
+			}
+			Arrays.fill(uppers, 0, games, 0);
+			Arrays.fill(lowers, 0, games, 0);
+			// YAHTZEE is the last column read, so its scores are left for the games below
+			for (int p = 0; p < PLAYS.length; p++) {
+				columns[p].read(start, start + games, scores);
+				long count = 0;
+				long sum = 0;
+				long squareSum = 0;
+				long zeros = 0;
+				long[] playFilled = filled[p];
+				for (int word = 0; word < words; word++) {
+					for (long bits = matched[word] & playFilled[(start >>> 6) + word]; bits != 0; bits &= bits - 1) {
+						int score = scores[word << 6 | Long.numberOfTrailingZeros(bits)];
+						count++;
+						sum += score;
+						squareSum += (long) score * score;
+						zeros += score == 0 ? 1 : 0;
+					}
+				}
+				stats.addPlay(PLAYS[p], count, sum, squareSum, zeros);
+				int[] into = PLAYS[p].isUpper() ? uppers : lowers;
+				for (int i = 0; i < games; i++) {
+					into[i] += scores[i];
+				}
+			}
+			for (int word = 0; word < words; word++) {
+				for (long bits = matched[word]; bits != 0; bits &= bits - 1) {
+					int i = word << 6 | Long.numberOfTrailingZeros(bits);
+					stats.addGame(uppers[i] + Scorer.getUpperScoreBonus(uppers[i]) + lowers[i],
+						Scorer.hasUpperScoreBonus(uppers[i]), yahtzees(scores[i]));
+				}
+			}
+		}
+		return stats;
+	}
+
+	private static int words(int games) {
+		return (games + 63) >>> 6;
+	}
+
+	/**
+	 * The scores of one Play, in the narrowest of bytes, shorts or ints that
+	 * holds every score so far. Scores are never negative, so bytes and shorts
+	 * are read unsigned.
+	 */
+	private static class Column {
+
+		private byte[] bytes;
+		private short[] shorts;
+		private int[] ints;
+
+		private Column(int capacity) {
+			bytes = new byte[capacity];
+		}
+
+		private int capacity() {
+			return null != bytes ? bytes.length : null != shorts ? shorts.length : ints.length;
+		}
+
+		private int get(int game) {
+			if (null != bytes) {
+				return bytes[game] & 0xFF;
+			}
+			if (null != shorts) {
+				return shorts[game] & 0xFFFF;
+			}
+			return ints[game];
+		}
+
+		private void set(int game, int score) {
+			if (null != bytes && score > 0xFF) {
+				shorts = new short[bytes.length];
+				for (int i = 0; i < bytes.length; i++) {
+					shorts[i] = (short) (bytes[i] & 0xFF);
+				}
+				bytes = null;
+			}
+			if (null != shorts && score > 0xFFFF) {
+				ints = new int[shorts.length];
+				for (int i = 0; i < shorts.length; i++) {
+					ints[i] = shorts[i] & 0xFFFF;
+				}
+				shorts = null;
+			}
+			if (null != bytes) {
+				bytes[game] = (byte) score;
+			} else if (null != shorts) {
+				shorts[game] = (short) score;
+			} else {
+				ints[game] = score;
+			}
+		}
+
+		private void resize(int capacity) {
+			if (null != bytes) {
+				bytes = Arrays.copyOf(bytes, capacity);
+			} else if (null != shorts) {
+				shorts = Arrays.copyOf(shorts, capacity);
+			} else {
+				ints = Arrays.copyOf(ints, capacity);
+			}
+		}
+
+		/**
+		 * Copies the scores of the games from to to into the start of scores.
+		 */
+		private void read(int from, int to, int[] scores) {
+			if (null != bytes) {
+				for (int i = from; i < to; i++) {
+					scores[i - from] = bytes[i] & 0xFF;
+				}
+			} else if (null != shorts) {
+				for (int i = from; i < to; i++) {
+					scores[i - from] = shorts[i] & 0xFFFF;
+				}
+			} else {
+				System.arraycopy(ints, from, scores, 0, to - from);
+			}
+		}
+
+		private long getBytes() {
+			return null != bytes ? bytes.length : null != shorts ? 2L * shorts.length : 4L * ints.length;
+		}
+	}
+}
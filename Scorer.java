@@ -5,10 +5,20 @@ import java.util.EnumMap;
 public class Scorer {
 
 	private final static int BONUS_DIFFERENTIAL_AVERAGE = 3;
-	private static DiceEvaluator evaluator = new DiceEvaluator();
 
+	/**
+	 * Scores a play from the analysis of the roll, shared by every play.
+	 */
 	public interface Scorable {
-		public int score(Player player, Dice die, boolean isBonusYahtzee);
+		public int score(Player player, RollAnalysis roll, boolean isBonusYahtzee);
+
+		/**
+		 * Adjusts the base score of a hand, as scored for a fresh player without a
+		 * bonus yahtzee, for the given player and bonus yahtzee state.
+		 */
+		public default int adjust(int baseScore, Player player, boolean isBonusYahtzee) {
+			return baseScore;
+		}
 	}
 
 	public static class SumMatchScorer implements Scorable {
@@ -19,21 +29,14 @@ public class Scorer {
 			this.match = match;
 		}
 
-		public int score(Player player, Dice dice, boolean isBonusYahtzee) {
-			int matchSum = 0;
-			for (Die die : dice.getDice()) {
-				int face = die.getFace();
-				if (face == match) {
-					matchSum += face;
-				}
-			}
-			return matchSum;
+		public int score(Player player, RollAnalysis roll, boolean isBonusYahtzee) {
+			return roll.getFaceCount(match) * match;
 		}
 	}
 
 	public static class YahtzeeScorer implements Scorable {
-		public int score(Player player, Dice dice, boolean isBonusYahtzee) {
-			if (!evaluator.isKind(dice, Game.DICE_COUNT)) {
+		public int score(Player player, RollAnalysis roll, boolean isBonusYahtzee) {
+			if (!roll.isYahtzee()) {
 				return 0;
 			}
 			if (!player.isScored(Game.Play.YAHTZEE)) {
@@ -41,19 +44,30 @@ public class Scorer {
 			}
 			return player.hadYahtzee() ? 100 : 0;
 		}
+
+		public int adjust(int baseScore, Player player, boolean isBonusYahtzee) {
+			if (baseScore == 0 || !player.isScored(Game.Play.YAHTZEE)) {
+				return baseScore;
+			}
+			return player.hadYahtzee() ? 100 : 0;
+		}
 	}
 
 	public static class ConstantScorer implements Scorable {
 		private final int score;
-		private final Predicate<Dice> predicate;
+		private final Predicate<RollAnalysis> predicate;
 
-		public ConstantScorer(int score, Predicate<Dice> predicate) {
+		public ConstantScorer(int score, Predicate<RollAnalysis> predicate) {
 			this.predicate = predicate;
 			this.score = score;
 		}
 
-		public int score(Player player, Dice dice, boolean isBonusYahtzee) {
-			return isBonusYahtzee || predicate.test(dice) ? score : 0;
+		public int score(Player player, RollAnalysis roll, boolean isBonusYahtzee) {
+			return isBonusYahtzee || predicate.test(roll) ? score : 0;
+		}
+
+		public int adjust(int baseScore, Player player, boolean isBonusYahtzee) {
+			return isBonusYahtzee ? score : baseScore;
 		}
 	}
 
@@ -64,21 +78,23 @@ public class Scorer {
 			this.minCount = minCount;
 		}
 
-		public int score(Player player, Dice dice, boolean isBonusYahtzee) {
-			if (evaluator.isKind(dice, minCount)) {
-				return dice.sumAll();
+		public int score(Player player, RollAnalysis roll, boolean isBonusYahtzee) {
+			if (roll.isKind(minCount)) {
+				return roll.getSum();
 			}
 			return 0;
 		}
 	}
 
 	public static class SumScorer implements Scorable {
-		public int score(Player player, Dice die, boolean isBonusYahtzee) {
-			return die.sumAll();
+		public int score(Player player, RollAnalysis roll, boolean isBonusYahtzee) {
+			return roll.getSum();
 		}
 	}
 
 	private static Map<Game.Play, Scorable> scorers;
+	// base score of every play for every HandIndex
+	private static final int[][] baseScores;
 
 	static {
 		scorers = new EnumMap<>(Game.Play.class);
@@ -88,46 +104,34 @@ public class Scorer {
 		scorers.put(Game.Play.FOUR, new SumMatchScorer(4));
 		scorers.put(Game.Play.FIVE, new SumMatchScorer(5));
 		scorers.put(Game.Play.SIX, new SumMatchScorer(6));
-		scorers.put(Game.Play.STRAIGHT_4, new ConstantScorer(Game.LOW_STRAIGHT_SCORE, dice -> evaluator.isStraight(dice, 4)));
-		scorers.put(Game.Play.STRAIGHT_5, new ConstantScorer(Game.HIGH_STRAIGHT_SCORE, dice -> evaluator.isStraight(dice, 5)));
-		scorers.put(Game.Play.FULL_HOUSE, new ConstantScorer(Game.FULL_HOUSE_SCORE, dice -> evaluator.isHouse(dice)));
+		scorers.put(Game.Play.STRAIGHT_4, new ConstantScorer(Game.LOW_STRAIGHT_SCORE, roll -> roll.isStraight(4)));
+		scorers.put(Game.Play.STRAIGHT_5, new ConstantScorer(Game.HIGH_STRAIGHT_SCORE, roll -> roll.isStraight(5)));
+		scorers.put(Game.Play.FULL_HOUSE, new ConstantScorer(Game.FULL_HOUSE_SCORE, RollAnalysis::isHouse));
 		scorers.put(Game.Play.CHANCE, new SumScorer());
 		scorers.put(Game.Play.KIND_3, new KindScorer(3));
 		scorers.put(Game.Play.KIND_4, new KindScorer(4));
 		scorers.put(Game.Play.YAHTZEE, new YahtzeeScorer());
-	}
-
-	public static int calcUpperScore(Map<Game.Play, Integer> scores) {
-		return addUpperScoreBonus(
-				scores.entrySet().stream()
-						.filter(e -> e.getValue() != null)
-						.filter(e -> e.getKey().isUpper())
-						.map(EnumMap.Entry::getValue)
-						.reduce(Integer::sum)
-						.orElse(0));
-	}
-
-	public static int calcLowerScore(Map<Game.Play, Integer> scores) {
-		return scores.entrySet().stream()
-				.filter(e -> e.getValue() != null)
-				.filter(e -> !e.getKey().isUpper())
-				.map(EnumMap.Entry::getValue)
-				.reduce(Integer::sum)
-				.orElse(0);
-	}
 
-	public static int getUpperScoreBonusDifferential(Map<Game.Play, Integer> scores) {
-		return scores.entrySet().stream()
-						.filter(e -> e.getValue() != null)
-						.filter(e -> e.getKey().isUpper())
-						.map(Scorer::calcUpperScoreBonusDifferential)
-						.reduce(Integer::sum)
-						.orElse(0);
+		Game.Play[] plays = Game.Play.values();
+		baseScores = new int[plays.length][HandIndex.SIZE];
+		Dice dice = new Dice(Map.of(Game.DICE_SIDES, Game.DICE_COUNT));
+		Player player = new Player("base");
+		for (int hand = 0; hand < HandIndex.SIZE; hand++) {
+			for (int i = 0; i < Game.DICE_COUNT; i++) {
+				dice.getDice().get(i).setFace(HandIndex.getFace(hand, i));
+			}
+			for (Game.Play play : plays) {
+				baseScores[play.ordinal()][hand] = scorers.get(play).score(player, dice.analyze(), false);
+			}
+		}
 	}
 
-	private static int calcUpperScoreBonusDifferential(Map.Entry<Game.Play, Integer> entry) {
-		int avg = Game.getUpperScoreDiceNumber(entry.getKey()) * BONUS_DIFFERENTIAL_AVERAGE;
-		return entry.getValue() - avg;
+	/**
+	 * Returns the score of an upper play on pace for the upper score bonus, three
+	 * of its face.
+	 */
+	public static int getUpperScoreBonusAverage(Game.Play play) {
+		return Game.getUpperScoreDiceNumber(play) * BONUS_DIFFERENTIAL_AVERAGE;
 	}
 
 	public static int addUpperScoreBonus(int upperScore) {
@@ -147,12 +151,42 @@ public class Scorer {
 	}
 
 	public static int score(Game.Play play, Player player, Dice dice, boolean isBonusYahtzee) {
-		if (!scorers.containsKey(play)) {
-			throw new IllegalArgumentException("Play " + play + " does not have a configured Scorable");
+		return score(play, player, dice.analyze(), isBonusYahtzee);
+	}
+
+	/**
+	 * Scores the play from the analysis of the roll, by table for standard dice.
+	 */
+	public static int score(Game.Play play, Player player, RollAnalysis roll, boolean isBonusYahtzee) {
+		Scorable scorer = getScorable(play);
+		int hand = roll.getHandIndex();
+		if (hand < 0) {
+			return scorer.score(player, roll, isBonusYahtzee);
 		}
-		return scorers.get(play).score(player, dice, isBonusYahtzee);
+		return scorer.adjust(baseScores[play.ordinal()][hand], player, isBonusYahtzee);
 	}
 
+	/**
+	 * Scores a standard hand by its HandIndex.
+	 */
+	public static int score(Game.Play play, Player player, int hand, boolean isBonusYahtzee) {
+		return getScorable(play).adjust(baseScores[play.ordinal()][hand], player, isBonusYahtzee);
+	}
+
+	/**
+	 * Returns the score of a standard hand for a player that has not scored a
+	 * yahtzee, without any bonus yahtzee.
+	 */
+	public static int getBaseScore(Game.Play play, int hand) {
+		return baseScores[play.ordinal()][hand];
+	}
 
+	private static Scorable getScorable(Game.Play play) {
+		Scorable scorer = scorers.get(play);
+		if (null == scorer) {
+			throw new IllegalArgumentException("Play " + play + " does not have a configured Scorable");
+		}
+		return scorer;
+	}
 
 }
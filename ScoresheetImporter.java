@@ -0,0 +1,392 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports games recorded on paper from CSV or TSV scoresheets, one game per row
+ * after a header naming the columns. Every Play needs a column, named as the
+ * Play such as FULL_HOUSE or "full house". Optional NAME, UPPER_BONUS,
+ * BONUS_YAHTZEES and TOTAL columns are checked against the scores, and any other
+ * column is ignored. Without a BONUS_YAHTZEES column the YAHTZEE column holds
+ * the bonus yahtzees too, as Player does.
+ *
+ * Each score must be one Scorer can give the play, so rows that could not come
+ * from a game are rejected rather than counted. The file is never loaded whole:
+ * workers claim fixed size chunks of it, each parsing the rows starting in its
+ * chunk straight from the bytes into its own ScoresheetStats, so memory stays
+ * bounded however large the file is.
+ */
+public class ScoresheetImporter {
+
+	private static final int CHUNK_SIZE = 8 << 20;
+	private static final int MAX_LINE = StreamIO.MAX_LINE;
+	private static final int MAX_BONUS_YAHTZEES = Game.ROUNDS - 1;
+	private static final int YAHTZEE_SCORE = 50;
+	private static final int BONUS_YAHTZEE_SCORE = 100;
+
+	// roles of the columns that are not plays
+	private static final int IGNORED = -1;
+	private static final int NAME = -2;
+	private static final int UPPER_BONUS = -3;
+	private static final int BONUS_YAHTZEES = -4;
+	private static final int TOTAL = -5;
+
+	// VALID_SCORES[p][s] if play p can score s, the YAHTZEE bonuses aside
+	private static final boolean[][] VALID_SCORES = new boolean[Game.Play.values().length][];
+
+	static {
+		for (Game.Play play : Game.Play.values()) {
+			int max = 0;
+			for (int hand = 0; hand < HandIndex.SIZE; hand++) {
+				max = Math.max(max, Scorer.getBaseScore(play, hand));
+			}
+			boolean[] valid = new boolean[max + 1];
+			// any play may be scratched
+			valid[0] = true;
+			for (int hand = 0; hand < HandIndex.SIZE; hand++) {
+				valid[Scorer.getBaseScore(play, hand)] = true;
+			}
+			VALID_SCORES[play.ordinal()] = valid;
+		}
+	}
+
+	private final int threads;
+
+	/**
+	 * @param threads the number of workers to parse the file with
+	 */
+	public ScoresheetImporter(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Cannot import with less than one thread");
+		}
+		this.threads = threads;
+	}
+
+	public ScoresheetImporter() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Imports every row of the scoresheet.
+	 *
+	 * @param path the CSV or TSV file, tab separated if its header has a tab
+	 * @return the statistics of the valid games and the rows rejected
+	 * @throws IllegalArgumentException if the header is missing a play
+	 */
+	public ScoresheetStats importFile(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			ByteBuffer first = ByteBuffer.allocate((int) Math.min(size, MAX_LINE + 1));
+			while (first.hasRemaining() && channel.read(first, first.position()) > 0) {
+			}
+			int headerEnd = 0;
+			while (headerEnd < first.position() && '\n' != first.get(headerEnd)) {
+				headerEnd++;
+			}
+			if (headerEnd > MAX_LINE) {
+				throw new IllegalArgumentException("Scoresheet header exceeds " + MAX_LINE + " bytes");
+			}
+			String header = new String(first.array(), 0, headerEnd, StandardCharsets.UTF_8);
+			Columns columns = new Columns(header);
+			long dataStart = Math.min(size, headerEnd + 1);
+			long chunks = (size - dataStart + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+			AtomicLong claimed = new AtomicLong();
+			int workers = (int) Math.max(1, Math.min(threads, chunks));
+			try {
+				ScoresheetStats stats = new ScoresheetStats();
+				for (ScoresheetStats worker : Workers.run("Import", workers,
+						worker -> work(channel, columns, dataStart, size, chunks, claimed))) {
+					stats.merge(worker);
+				}
+				return stats;
+			} catch (IllegalStateException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				throw e;
+			}
+		}
+	}
+
+	private ScoresheetStats work(FileChannel channel, Columns columns, long dataStart, long size, long chunks,
+			AtomicLong claimed) throws IOException {
+		ScoresheetStats stats = new ScoresheetStats();
+		RowParser parser = new RowParser(columns, stats);
+		// a chunk, the byte before it and the rest of a row crossing its end
+		ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE + MAX_LINE + 2);
+		long chunk;
+		while ((chunk = claimed.getAndIncrement()) < chunks) {
+			long start = dataStart + chunk * CHUNK_SIZE;
+			long end = Math.min(size, start + CHUNK_SIZE);
+			// the byte before the chunk tells whether its first row starts on it
+			long position = start - 1;
+			long limit = Math.min(size, end + MAX_LINE + 1);
+			buffer.clear().limit((int) (limit - position));
+			while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+			}
+			byte[] bytes = buffer.array();
+			int length = buffer.position();
+			int row = 0;
+			while (row < length && '\n' != bytes[row]) {
+				row++;
+			}
+			row++;
+			while (row < length && position + row < end) {
+				int lineEnd = row;
+				while (lineEnd < length && '\n' != bytes[lineEnd]) {
+					lineEnd++;
+				}
+				if (lineEnd == length && position + length < size) {
+					// the row runs past the buffer, so no other row starts in the chunk
+					stats.reject(position + row, "row exceeds " + MAX_LINE + " bytes");
+					break;
+				}
+				if (lineEnd - row > MAX_LINE) {
+					stats.reject(position + row, "row exceeds " + MAX_LINE + " bytes");
+				} else {
+					parser.parse(bytes, row, lineEnd, position + row);
+				}
+				row = lineEnd + 1;
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * The role of each column of a scoresheet, from its header.
+	 */
+	private static final class Columns {
+
+		private final byte delimiter;
+		private final int[] roles;
+		private final boolean hasBonusYahtzees;
+
+		private Columns(String header) {
+			if (header.startsWith("\uFEFF")) {
+				header = header.substring(1);
+			}
+			if (header.endsWith("\r")) {
+				header = header.substring(0, header.length() - 1);
+			}
+			delimiter = (byte) (header.indexOf('\t') >= 0 ? '\t' : ',');
+			String[] names = header.split(delimiter == '\t' ? "\t" : ",", -1);
+			roles = new int[names.length];
+			boolean[] found = new boolean[Game.Play.values().length];
+			boolean bonusYahtzees = false;
+			for (int i = 0; i < names.length; i++) {
+				String name = names[i].trim().replace("\"", "").toUpperCase(Locale.ROOT).replaceAll("[ -]+", "_");
+				roles[i] = getRole(name);
+				if (roles[i] >= 0) {
+					if (found[roles[i]]) {
+						throw new IllegalArgumentException("Scoresheet has two " + name + " columns");
+					}
+					found[roles[i]] = true;
+				}
+				bonusYahtzees |= BONUS_YAHTZEES == roles[i];
+			}
+			for (Game.Play play : Game.Play.values()) {
+				if (!found[play.ordinal()]) {
+					throw new IllegalArgumentException("Scoresheet has no " + play.name() + " column");
+				}
+			}
+			hasBonusYahtzees = bonusYahtzees;
+		}
+
+		private static int getRole(String name) {
+			switch (name) {
+				case "NAME":
+				case "PLAYER":
+					return NAME;
+				case "UPPER_BONUS":
+				case "BONUS":
+					return UPPER_BONUS;
+				case "BONUS_YAHTZEES":
+				case "BONUS_YAHTZEE":
+					return BONUS_YAHTZEES;
+				case "TOTAL":
+					return TOTAL;
+				default:
+					for (Game.Play play : Game.Play.values()) {
+						if (play.name().equals(name)) {
+							return play.ordinal();
+						}
+					}
+					return IGNORED;
+			}
+		}
+	}
+
+	/**
+	 * Parses rows into a reused Player, adding valid games to the stats.
+	 */
+	private static final class RowParser {
+
+		private final Columns columns;
+		private final ScoresheetStats stats;
+		private final Player player = new Player("sheet");
+		private final int[] values;
+		private final Game.Play[] plays = Game.Play.values();
+
+		private RowParser(Columns columns, ScoresheetStats stats) {
+			this.columns = columns;
+			this.stats = stats;
+			this.values = new int[columns.roles.length];
+		}
+
+		private void parse(byte[] bytes, int from, int to, long position) {
+			if (to > from && '\r' == bytes[to - 1]) {
+				to--;
+			}
+			if (to == from) {
+				return;
+			}
+			String error = read(bytes, from, to);
+			if (null == error) {
+				error = score();
+			}
+			if (null == error) {
+				stats.add(player);
+			} else {
+				stats.reject(position, error);
+			}
+		}
+
+		/**
+		 * Reads the number of every column but the ignored ones into values,
+		 * returning why the row is invalid or null.
+		 */
+		private String read(byte[] bytes, int from, int to) {
+			int i = from;
+			for (int c = 0; c < values.length; c++) {
+				if (i > to) {
+					return "row has " + c + " of " + values.length + " columns";
+				}
+				int start = i;
+				int end;
+				if (i < to && '"' == bytes[i]) {
+					start = ++i;
+					while (i < to && !('"' == bytes[i] && (i + 1 == to || '"' != bytes[i + 1]))) {
+						i += '"' == bytes[i] ? 2 : 1;
+					}
+					end = i++;
+					while (i < to && columns.delimiter != bytes[i]) {
+						i++;
+					}
+				} else {
+					while (i < to && columns.delimiter != bytes[i]) {
+						i++;
+					}
+					end = i;
+				}
+				i++;
+				int role = columns.roles[c];
+				if (IGNORED == role || NAME == role) {
+					continue;
+				}
+				int value = parseInt(bytes, start, end);
+				if (value < 0) {
+					String field = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+					return "'" + field + "' is not a " + getColumnName(role) + " score";
+				}
+				values[c] = value;
+			}
+			return null;
+		}
+
+		/**
+		 * Scores the values on the player, returning why they could not come from
+		 * a game or null.
+		 */
+		private String score() {
+			player.reset();
+			int bonusYahtzees = -1;
+			int upperBonus = -1;
+			int total = -1;
+			for (int c = 0; c < values.length; c++) {
+				int role = columns.roles[c];
+				int value = values[c];
+				if (role >= 0) {
+					Game.Play play = plays[role];
+					if (!isValid(play, value)) {
+						return play.name() + " cannot score " + value;
+					}
+					player.play(play, value);
+				} else if (BONUS_YAHTZEES == role) {
+					bonusYahtzees = value;
+				} else if (UPPER_BONUS == role) {
+					upperBonus = value;
+				} else if (TOTAL == role) {
+					total = value;
+				}
+			}
+			if (columns.hasBonusYahtzees) {
+				int yahtzee = player.getScore(Game.Play.YAHTZEE);
+				if (yahtzee > YAHTZEE_SCORE || bonusYahtzees > MAX_BONUS_YAHTZEES
+						|| (bonusYahtzees > 0 && yahtzee != YAHTZEE_SCORE)) {
+					return bonusYahtzees + " bonus yahtzees with a YAHTZEE of " + yahtzee;
+				}
+				player.play(Game.Play.YAHTZEE, bonusYahtzees * BONUS_YAHTZEE_SCORE);
+			}
+			if (upperBonus >= 0 && upperBonus != Scorer.getUpperScoreBonus(player.getUpperScore())) {
+				return "upper bonus of " + upperBonus + " for an upper score of " + player.getUpperScore();
+			}
+			if (total >= 0 && total != player.score()) {
+				return "total of " + total + " for scores totalling " + player.score();
+			}
+			return null;
+		}
+
+		private boolean isValid(Game.Play play, int score) {
+			if (Game.Play.YAHTZEE == play && !columns.hasBonusYahtzees) {
+				return score == 0 || (score >= YAHTZEE_SCORE && (score - YAHTZEE_SCORE) % BONUS_YAHTZEE_SCORE == 0
+					&& (score - YAHTZEE_SCORE) / BONUS_YAHTZEE_SCORE <= MAX_BONUS_YAHTZEES);
+			}
+			boolean[] valid = VALID_SCORES[play.ordinal()];
+			return score < valid.length && valid[score];
+		}
+
+		private static String getColumnName(int role) {
+			switch (role) {
+				case UPPER_BONUS:
+					return "UPPER_BONUS";
+				case BONUS_YAHTZEES:
+					return "BONUS_YAHTZEES";
+				case TOTAL:
+					return "TOTAL";
+				default:
+					return Game.Play.values()[role].name();
+			}
+		}
+
+		/**
+		 * Returns the non-negative integer of the bytes, allowing surrounding
+		 * spaces, or -1 if they are not one.
+		 */
+		private static int parseInt(byte[] bytes, int from, int to) {
+			while (from < to && ' ' == bytes[from]) {
+				from++;
+			}
+			while (to > from && ' ' == bytes[to - 1]) {
+				to--;
+			}
+			if (from == to || to - from > 6) {
+				return -1;
+			}
+			int value = 0;
+			for (int i = from; i < to; i++) {
+				int digit = bytes[i] - '0';
+				if (digit < 0 || digit > 9) {
+					return -1;
+				}
+				value = value * 10 + digit;
+			}
+			return value;
+		}
+	}
+}
@@ -0,0 +1,136 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Statistics of the games imported from scoresheets: the SimulationResult of
+ * every valid game, the distribution of each play's score and of the totals,
+ * and the rows rejected. Only the first MAX_ERRORS rejections are described, so
+ * memory does not grow with the size of the sheets. Statistics collected by
+ * separate workers are combined with merge.
+ */
+public class ScoresheetStats {
+
+	public static final int MAX_ERRORS = 20;
+
+	private static final int PLAYS = Game.Play.values().length;
+
+	private final SimulationResult result = new SimulationResult();
+	// counts[p][s] games scored s on play p
+	private final long[][] counts = new long[PLAYS][];
+	private long[] totals = new long[0];
+	private long rejected;
+	// the first rejections by position in the sheet
+	private final TreeMap<Long, String> errors = new TreeMap<>();
+
+	public ScoresheetStats() {
+		Arrays.fill(counts, new long[0]);
+	}
+
+	public void add(Player player) {
+		result.add(player);
+		for (Game.Play play : Game.Play.values()) {
+			int p = play.ordinal();
+			counts[p] = Histograms.count(counts[p], player.getScore(play));
+		}
+		totals = Histograms.count(totals, player.score());
+	}
+
+	/**
+	 * Counts a row that is not a valid game.
+	 *
+	 * @param position the byte offset of the row in the sheet
+	 * @param reason why the row was rejected
+	 */
+	public void reject(long position, String reason) {
+		rejected++;
+		if (errors.size() < MAX_ERRORS || position < errors.lastKey()) {
+			errors.put(position, "byte " + position + ": " + reason);
+			if (errors.size() > MAX_ERRORS) {
+				errors.pollLastEntry();
+			}
+		}
+	}
+
+	public void merge(ScoresheetStats other) {
+		result.merge(other.result);
+		for (int p = 0; p < PLAYS; p++) {
+			counts[p] = Histograms.merge(counts[p], other.counts[p]);
+		}
+		totals = Histograms.merge(totals, other.totals);
+		rejected += other.rejected;
+		for (Map.Entry<Long, String> error : other.errors.entrySet()) {
+			errors.put(error.getKey(), error.getValue());
+			if (errors.size() > MAX_ERRORS) {
+				errors.pollLastEntry();
+			}
+		}
+	}
+
+	/**
+	 * Returns the statistics of the valid games.
+	 */
+	public SimulationResult getResult() {
+		return result;
+	}
+
+	public long getGames() {
+		return result.getGames();
+	}
+
+	public long getRejectedRows() {
+		return rejected;
+	}
+
+	/**
+	 * Returns the first rows rejected, in the order of the sheet.
+	 */
+	public List<String> getErrors() {
+		return new ArrayList<>(errors.values());
+	}
+
+	/**
+	 * Returns the number of games scoring each score on the play.
+	 */
+	public SortedMap<Integer, Long> getDistribution(Game.Play play) {
+		return toMap(counts[play.ordinal()]);
+	}
+
+	/**
+	 * Returns the number of games ending on each total score.
+	 */
+	public SortedMap<Integer, Long> getTotalDistribution() {
+		return toMap(totals);
+	}
+
+	private static SortedMap<Integer, Long> toMap(long[] counts) {
+		SortedMap<Integer, Long> distribution = new TreeMap<>();
+		for (int s = 0; s < counts.length; s++) {
+			if (counts[s] > 0) {
+				distribution.put(s, counts[s]);
+			}
+		}
+		return distribution;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(result);
+		for (Game.Play play : Game.getSortedPlays()) {
+			builder.append(DisplayUtil.pad(play.name() + ": ", 15));
+			for (Map.Entry<Integer, Long> entry : getDistribution(play).entrySet()) {
+				builder.append(String.format(" %d:%.3f", entry.getKey(), (double) entry.getValue() / getGames()));
+			}
+			builder.append('\n');
+		}
+		builder.append("Rejected Rows: " + rejected + "\n");
+		for (String error : errors.values()) {
+			builder.append("  ").append(error).append('\n');
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,122 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A full screen terminal renderer. Output is composed into sections that keep
+ * their place on the screen, and each frame is written as a single buffer of
+ * ANSI escapes that only rewrites the lines changed since the previous frame,
+ * each from its first changed column.
+ *
+ * Sections grow to the tallest content they have held and never shrink, so a
+ * section changing height does not move every line below it.
+ */
+public class Screen {
+
+	public enum Section {
+		LEADERBOARD, SCORECARD, DICE, PLAYS, MESSAGES
+	}
+
+	private static final String ESCAPE = "\u001b[";
+	private static final String CLEAR_SCREEN = ESCAPE + "2J" + ESCAPE + "H";
+	private static final String CLEAR_LINE = ESCAPE + "K";
+	private static final String CLEAR_BELOW = ESCAPE + "J";
+
+	private final GameIO out;
+	private final Map<Section, String[]> sections = new EnumMap<>(Section.class);
+	private final Map<Section, Integer> heights = new EnumMap<>(Section.class);
+	private String[] previous;
+
+	public Screen(GameIO out) {
+		if (null == out) {
+			throw new NullPointerException("Screen out cannot be null");
+		}
+		this.out = out;
+	}
+
+	public void set(Section section, String text) {
+		String[] lines = text.split("\n", -1);
+		sections.put(section, lines);
+		heights.merge(section, lines.length, Math::max);
+	}
+
+	/**
+	 * Adds the text below the current content of the section.
+	 */
+	public void append(Section section, String text) {
+		String[] current = sections.get(section);
+		set(section, null == current ? text : String.join("\n", current) + "\n" + text);
+	}
+
+	public void clear(Section section) {
+		sections.remove(section);
+	}
+
+	/**
+	 * Writes the frame with the prompt on its last line, leaving the cursor after
+	 * the prompt. The prompt line is always rewritten by the next frame, as
+	 * whatever was typed after it is echoed by the terminal.
+	 *
+	 * @param prompt the prompt to end the frame with
+	 */
+	public void render(String prompt) {
+		String[] frame = compose(prompt);
+		StringBuilder sb = new StringBuilder();
+		if (null == previous) {
+			sb.append(CLEAR_SCREEN);
+			for (int i = 0; i < frame.length; i++) {
+				sb.append(frame[i]);
+				if (i < frame.length - 1) {
+					sb.append('\n');
+				}
+			}
+		} else {
+			for (int i = 0; i < frame.length - 1; i++) {
+				// the previous prompt line is null, as what was typed on it is unknown
+				String before = i < previous.length ? previous[i] : "";
+				if (null == before || !frame[i].equals(before)) {
+					int column = 0;
+					while (null != before && column < frame[i].length() && column < before.length()
+							&& frame[i].charAt(column) == before.charAt(column)) {
+						column++;
+					}
+					moveTo(sb, i, column).append(frame[i], column, frame[i].length());
+					if (null == before || frame[i].length() < before.length()) {
+						sb.append(CLEAR_LINE);
+					}
+				}
+			}
+			if (frame.length < previous.length) {
+				moveTo(sb, frame.length, 0).append(CLEAR_BELOW);
+			}
+			moveTo(sb, frame.length - 1, 0).append(prompt).append(CLEAR_LINE);
+		}
+		out.print(sb.toString());
+		out.flush();
+		frame[frame.length - 1] = null;
+		previous = frame;
+	}
+
+	private String[] compose(String prompt) {
+		List<String> lines = new ArrayList<>();
+		for (Section section : Section.values()) {
+			Integer height = heights.get(section);
+			if (null == height) {
+				continue;
+			}
+			String[] content = sections.getOrDefault(section, new String[0]);
+			lines.addAll(Arrays.asList(content));
+			for (int i = content.length; i < height; i++) {
+				lines.add("");
+			}
+		}
+		lines.add(prompt);
+		return lines.toArray(new String[0]);
+	}
+
+	private static StringBuilder moveTo(StringBuilder sb, int line, int column) {
+		return sb.append(ESCAPE).append(line + 1).append(';').append(column + 1).append('H');
+	}
+}
@@ -0,0 +1,136 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * GameIO reading a file of game scripts, so that many games can be played back
+ * to back at the speed of the disk rather than a terminal. Output is discarded.
+ *
+ * A script holds the lines a player would type at each prompt of a game, from
+ * the number of players and their names to the last play, after a header line
+ *
+ * #game seed
+ *
+ * giving the seed the game's dice roll from. Other lines starting with # are
+ * comments. Reaching the next header ends the input of the current game, so a
+ * script that falls short ends its own game rather than reading into the next.
+ */
+public class ScriptIO implements GameIO, Closeable {
+
+	public static final String GAME_HEADER = "#game";
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final BufferedReader reader;
+	// the header of the next game, read while playing the current one
+	private String header;
+	private int lineNumber;
+	private long seed;
+
+	public ScriptIO(InputStream in) {
+		if (null == in) {
+			throw new NullPointerException("ScriptIO in cannot be null");
+		}
+		this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	public static ScriptIO open(Path path) throws IOException {
+		return new ScriptIO(Files.newInputStream(path));
+	}
+
+	/**
+	 * Skips the rest of the current game and starts reading the next.
+	 *
+	 * @return false if there are no more games
+	 * @throws IllegalArgumentException if the header of the next game has no seed
+	 */
+	public boolean nextGame() {
+		finishGame();
+		if (null == header) {
+			return false;
+		}
+		String[] parts = header.trim().split("\\s+");
+		try {
+			if (parts.length != 2) {
+				throw new NumberFormatException();
+			}
+			seed = Long.parseLong(parts[1]);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Line " + lineNumber + " is not a game header: " + header);
+		}
+		header = null;
+		return true;
+	}
+
+	/**
+	 * Skips to the header of the next game.
+	 *
+	 * @return the number of lines of the current game left unread
+	 */
+	public int finishGame() {
+		int unread = 0;
+		while (null != readLine()) {
+			unread++;
+		}
+		return unread;
+	}
+
+	/**
+	 * Returns the seed of the current game.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns the number of the last line read, counting from 1.
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * Returns the next line of the current game, or null once its script ends.
+	 */
+	@Override
+	public String readLine() {
+		if (null != header) {
+			return null;
+		}
+		try {
+			String line;
+			while (null != (line = reader.readLine())) {
+				lineNumber++;
+				if (line.startsWith(GAME_HEADER)) {
+					header = line;
+					return null;
+				}
+				if (!line.startsWith("#")) {
+					return line;
+				}
+			}
+			return null;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void print(String text) {
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
@@ -0,0 +1,148 @@
+/**
+ * Aggregated statistics over a number of completed single player games. Results
+ * collected by separate workers are combined with merge.
+ */
+public class SimulationResult {
+
+	private static final int PLAYS = Game.Play.values().length;
+
+	private long games;
+	private long scoreSum;
+	private long scoreSquareSum;
+	private int minScore = Integer.MAX_VALUE;
+	private int maxScore = Integer.MIN_VALUE;
+	private long upperBonuses;
+	private long yahtzees;
+	private long bonusYahtzees;
+	private final long[] playSums = new long[PLAYS];
+	private final long[] playZeros = new long[PLAYS];
+
+	public void add(Player player) {
+		int score = player.score();
+		games++;
+		scoreSum += score;
+		scoreSquareSum += (long) score * score;
+		minScore = Math.min(minScore, score);
+		maxScore = Math.max(maxScore, score);
+		if (player.hasUpperScoreBonus()) {
+			upperBonuses++;
+		}
+		yahtzees += player.getYahtzees();
+		bonusYahtzees += player.getBonusYahtzees();
+		for (Game.Play play : Game.Play.values()) {
+			int playScore = player.getScore(play);
+			playSums[play.ordinal()] += playScore;
+			if (playScore == 0) {
+				playZeros[play.ordinal()]++;
+			}
+		}
+	}
+
+	/**
+	 * Adds every game of an archive block, reading its columns directly rather
+	 * than rebuilding each Player.
+	 */
+	public void add(GameArchive.Block block) {
+		int size = block.size();
+		int[] blockBonusYahtzees = block.getBonusYahtzees();
+		int[] blockUpperBonuses = block.getUpperBonuses();
+		int[] yahtzeeScores = block.getScores(Game.Play.YAHTZEE);
+		for (int i = 0; i < size; i++) {
+			int score = block.getTotal(i);
+			games++;
+			scoreSum += score;
+			scoreSquareSum += (long) score * score;
+			minScore = Math.min(minScore, score);
+			maxScore = Math.max(maxScore, score);
+			upperBonuses += blockUpperBonuses[i];
+			yahtzees += yahtzeeScores[i] > 0 ? blockBonusYahtzees[i] + 1 : 0;
+			bonusYahtzees += blockBonusYahtzees[i];
+		}
+		for (Game.Play play : Game.Play.values()) {
+			int[] scores = block.getScores(play);
+			long sum = 0;
+			long zeros = 0;
+			for (int i = 0; i < size; i++) {
+				sum += scores[i];
+				zeros += scores[i] == 0 ? 1 : 0;
+			}
+			playSums[play.ordinal()] += sum;
+			playZeros[play.ordinal()] += zeros;
+		}
+	}
+
+	public void merge(SimulationResult other) {
+		games += other.games;
+		scoreSum += other.scoreSum;
+		scoreSquareSum += other.scoreSquareSum;
+		minScore = Math.min(minScore, other.minScore);
+		maxScore = Math.max(maxScore, other.maxScore);
+		upperBonuses += other.upperBonuses;
+		yahtzees += other.yahtzees;
+		bonusYahtzees += other.bonusYahtzees;
+		for (int i = 0; i < PLAYS; i++) {
+			playSums[i] += other.playSums[i];
+			playZeros[i] += other.playZeros[i];
+		}
+	}
+
+	public long getGames() {
+		return games;
+	}
+
+	public double getMeanScore() {
+		return games == 0 ? 0 : (double) scoreSum / games;
+	}
+
+	public double getScoreStandardDeviation() {
+		if (games < 2) {
+			return 0;
+		}
+		double mean = getMeanScore();
+		return Math.sqrt(Math.max(0, (scoreSquareSum - games * mean * mean) / (games - 1)));
+	}
+
+	public int getMinScore() {
+		return minScore;
+	}
+
+	public int getMaxScore() {
+		return maxScore;
+	}
+
+	public double getUpperBonusRate() {
+		return games == 0 ? 0 : (double) upperBonuses / games;
+	}
+
+	public double getYahtzeesPerGame() {
+		return games == 0 ? 0 : (double) yahtzees / games;
+	}
+
+	public double getBonusYahtzeesPerGame() {
+		return games == 0 ? 0 : (double) bonusYahtzees / games;
+	}
+
+	public double getMeanScore(Game.Play play) {
+		return games == 0 ? 0 : (double) playSums[play.ordinal()] / games;
+	}
+
+	public double getZeroRate(Game.Play play) {
+		return games == 0 ? 0 : (double) playZeros[play.ordinal()] / games;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("Games: " + games + "\n");
+		builder.append(String.format("Mean Score: %.2f (sd %.2f, min %d, max %d)%n",
+			getMeanScore(), getScoreStandardDeviation(), minScore, maxScore));
+		builder.append(String.format("Upper Bonus Rate: %.4f%n", getUpperBonusRate()));
+		builder.append(String.format("Yahtzees Per Game: %.4f (%.4f bonus)%n",
+			getYahtzeesPerGame(), getBonusYahtzeesPerGame()));
+		for (Game.Play play : Game.getSortedPlays()) {
+			builder.append(DisplayUtil.pad(play.name() + ": ", 15))
+				.append(String.format("%7.3f  (%.4f zero)%n", getMeanScore(play), getZeroRate(play)));
+		}
+		return builder.toString();
+	}
+}
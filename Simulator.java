@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays complete games headless, with every decision made by a Strategy rather
+ * than the Controller. Games are spread over a fixed pool of workers, each of
+ * which claims games in blocks and keeps its own SimulationResult until the
+ * results are merged at the end of the run.
+ *
+ * Every game rolls with its own generator derived from the seed of the
+ * simulator and the index of the game, so runs with the same seed produce the
+ * same result regardless of the number of threads.
+ */
+public class Simulator {
+
+	private static final int BLOCK_SIZE = 1024;
+	private static final GameListener NO_LISTENER = new GameListener() {};
+
+	private final Supplier<Strategy> strategies;
+	private final int threads;
+	private final long seed;
+
+	/**
+	 * @param strategies supplies a Strategy for each worker, so strategies need not
+	 * be thread safe
+	 * @param threads the number of workers to play games on
+	 * @param seed the master seed of the games
+	 */
+	public Simulator(Supplier<Strategy> strategies, int threads, long seed) {
+		if (null == strategies) {
+			throw new NullPointerException("Simulator strategies cannot be null");
+		}
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Cannot simulate with less than one thread");
+		}
+		this.strategies = strategies;
+		this.threads = threads;
+		this.seed = seed;
+	}
+
+	public Simulator(Supplier<Strategy> strategies, int threads) {
+		this(strategies, threads, RandomSource.create().nextLong());
+	}
+
+	public Simulator(Supplier<Strategy> strategies) {
+		this(strategies, Runtime.getRuntime().availableProcessors());
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public SimulationResult run(long games) {
+		return run(games, null);
+	}
+
+	/**
+	 * Plays the games, adding each to the archive as it finishes. Games are
+	 * archived in the order they finish, which varies with more than one thread.
+	 *
+	 * @param games the number of games to play
+	 * @param archive the archive to add every game to, or null
+	 * @return the statistics of the games
+	 */
+	public SimulationResult run(long games, GameArchive.Writer archive) {
+		if (games < 0) {
+			throw new IllegalArgumentException("Cannot simulate a negative number of games");
+		}
+		AtomicLong claimed = new AtomicLong();
+		SimulationResult result = new SimulationResult();
+		for (SimulationResult worker : Workers.run("Simulation", threads, worker -> work(claimed, games, archive))) {
+			result.merge(worker);
+		}
+		return result;
+	}
+
+	private SimulationResult work(AtomicLong claimed, long games, GameArchive.Writer archive) throws IOException {
+		Strategy strategy = strategies.get();
+		SimulationResult result = new SimulationResult();
+		GameArchive.RollRecorder recorder = null != archive && archive.hasRolls() ? new GameArchive.RollRecorder() : null;
+		long start;
+		while ((start = claimed.getAndAdd(BLOCK_SIZE)) < games) {
+			long end = Math.min(games, start + BLOCK_SIZE);
+			for (long i = start; i < end; i++) {
+				Player player;
+				if (null == recorder) {
+					player = playGame(strategy, RandomSource.forGame(seed, i));
+				} else {
+					recorder.clear();
+					player = playGame(strategy, RandomSource.forGame(seed, i), recorder);
+				}
+				result.add(player);
+				if (null != archive) {
+					archive.add(player, recorder);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Plays a complete single player game.
+	 * 
+	 * @param strategy makes the decisions of each round
+	 * @param random the generator to roll every die of the game with
+	 * @return the player holding the final scorecard
+	 */
+	public static Player playGame(Strategy strategy, RandomGenerator random) {
+		return playGame(strategy, random, NO_LISTENER);
+	}
+
+	/**
+	 * Plays a complete single player game, telling the listener of each turn, roll
+	 * and play as Game would.
+	 */
+	public static Player playGame(Strategy strategy, RandomGenerator random, GameListener listener) {
+		Player player = new Player("sim");
+		for (int i = 0; i < Game.ROUNDS; i++) {
+			listener.turnStarted(i, player);
+			playRound(player, strategy, random, listener);
+			listener.turnEnded(i, player);
+		}
+		return player;
+	}
+
+	/**
+	 * Plays a single round following the same rules as Game, rolling once and
+	 * allowing up to two rerolls before a play is filled.
+	 * 
+	 * @param player the player taking the round
+	 * @param strategy makes the decisions of the round
+	 * @param random the generator to roll the dice with
+	 */
+	public static void playRound(Player player, Strategy strategy, RandomGenerator random) {
+		playRound(player, strategy, random, NO_LISTENER);
+	}
+
+	private static void playRound(Player player, Strategy strategy, RandomGenerator random, GameListener listener) {
+		Dice dice = new Dice(Map.of(Game.DICE_SIDES, Game.DICE_COUNT), random);
+		dice.roll();
+		fireDiceRolled(player, dice, listener);
+		dice.setAllIsRolling(false);
+		int rerolls = 2;
+		while (rerolls > 0 && strategy.chooseReroll(player, dice, rerolls) && dice.isAnyRolling()) {
+			dice.roll();
+			fireDiceRolled(player, dice, listener);
+			dice.setAllIsRolling(false);
+			rerolls--;
+		}
+		dice.setAllIsRolling(false);
+
+		Game.Play play = choosePlay(player, dice, strategy, Game.getPlayablePlays(player, dice), false);
+		boolean isBonusYahtzee = player.hadYahtzee() && Game.Play.YAHTZEE == play;
+		int score = Scorer.score(play, player, dice, isBonusYahtzee);
+		if (isBonusYahtzee) {
+			List<Game.Play> plays = Game.getBonusYahtzeePlays(player, dice);
+			if (plays.isEmpty()) {
+				throw new IllegalStateException("There was no valid play for the bonus yahtzee");
+			}
+			Game.Play bonusPlay = plays.size() == 1 ? plays.get(0) : choosePlay(player, dice, strategy, plays, true);
+			int bonusScore = Scorer.score(bonusPlay, player, dice, true);
+			player.play(bonusPlay, bonusScore);
+			listener.played(player, bonusPlay, bonusScore);
+		}
+		player.play(play, score);
+		listener.played(player, play, score);
+	}
+
+	private static void fireDiceRolled(Player player, Dice dice, GameListener listener) {
+		if (NO_LISTENER != listener) {
+			listener.diceRolled(player, dice.getFaces());
+		}
+	}
+
+	private static Game.Play choosePlay(Player player, Dice dice, Strategy strategy, List<Game.Play> plays,
+			boolean isBonusYahtzee) {
+		Game.Play play = strategy.choosePlay(player, dice, plays, isBonusYahtzee);
+		if (!plays.contains(play)) {
+			throw new IllegalStateException("Strategy chose unavailable play " + play);
+		}
+		return play;
+	}
+}
@@ -0,0 +1,332 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the optimal expected score of every ValueTable state by backward
+ * induction. States are solved in layers by the number of open plays, as a
+ * round always fills exactly one open play, and each layer is split by open
+ * play set across a fixed pool of workers.
+ *
+ * Within a state a round is evaluated as in Game.playerRound: the dice are
+ * rolled, then up to two rerolls of any held subset are allowed before a play
+ * is filled. Holds are represented as keeps, the multiset of held faces, since
+ * the outcome of a reroll only depends on which faces were held.
+ */
+public class Solver {
+
+	private static final int PLAYS = ValueTable.PLAYS;
+	private static final int THRESHOLD = Game.UPPER_SCORE_THRESHOLD;
+	private static final int YAHTZEE_BIT = 1 << Game.Play.YAHTZEE.ordinal();
+	private static final int UPPER_MASK;
+	private static final int[] BONUS_YAHTZEE_GROUP_MASKS;
+	private static final int[][] SCORES = new int[PLAYS][];
+	private static final int[][] BONUS_YAHTZEE_SCORES = new int[PLAYS][];
+	private static final int BONUS_YAHTZEE_SCORE;
+
+	public static final int REROLLS = 2;
+
+	// the reroll tables of the RerollModel, read directly in the inner loops
+	private static final RerollModel MODEL = RerollModel.get();
+	private static final int KEEPS = MODEL.getKeepCount();
+	private static final int EMPTY_KEEP = MODEL.getEmptyKeep();
+	private static final int[] OUTCOME_START = MODEL.getOutcomeStarts();
+	private static final int[] OUTCOME_HANDS = MODEL.getOutcomeHands();
+	private static final double[] OUTCOME_PROBABILITIES = MODEL.getOutcomeProbabilities();
+	private static final int[] HAND_KEEP_START = MODEL.getHandKeepStarts();
+	private static final int[] HAND_KEEPS = MODEL.getHandKeeps();
+
+	static {
+		int upperMask = 0;
+		for (Game.Play play : Game.Play.values()) {
+			if (play.isUpper()) {
+				upperMask |= 1 << play.ordinal();
+			}
+		}
+		UPPER_MASK = upperMask;
+		List<List<Game.Play>> groups = Game.getBonusYahtzeeGroups();
+		BONUS_YAHTZEE_GROUP_MASKS = new int[groups.size()];
+		for (int i = 0; i < groups.size(); i++) {
+			for (Game.Play play : groups.get(i)) {
+				BONUS_YAHTZEE_GROUP_MASKS[i] |= 1 << play.ordinal();
+			}
+		}
+		Player fresh = new Player("solver");
+		Player scored = new Player("solver");
+		int yahtzeeHand = HandIndex.indexOf(1, 1, 1, 1, 1);
+		scored.play(Game.Play.YAHTZEE, Scorer.getBaseScore(Game.Play.YAHTZEE, yahtzeeHand));
+		BONUS_YAHTZEE_SCORE = Scorer.score(Game.Play.YAHTZEE, scored, yahtzeeHand, true);
+		for (Game.Play play : Game.Play.values()) {
+			SCORES[play.ordinal()] = new int[HandIndex.SIZE];
+			BONUS_YAHTZEE_SCORES[play.ordinal()] = new int[HandIndex.SIZE];
+			for (int hand = 0; hand < HandIndex.SIZE; hand++) {
+				SCORES[play.ordinal()][hand] = Scorer.getBaseScore(play, hand);
+				BONUS_YAHTZEE_SCORES[play.ordinal()][hand] = Scorer.score(play, fresh, hand, true);
+			}
+		}
+	}
+
+	private Solver() {
+	}
+
+	/**
+	 * Returns the keep of a hand when holding the sorted dice positions set in
+	 * the held mask.
+	 */
+	public static int getKeep(int hand, int held) {
+		return MODEL.getKeep(hand, held);
+	}
+
+	/**
+	 * Returns the keep holding the faces summing to the HandIndex key weights.
+	 */
+	public static int getKeepOfKey(int key) {
+		return MODEL.getKeepOfKey(key);
+	}
+
+	/**
+	 * Solves every state, using all available processors.
+	 */
+	public static ArrayValueTable solve() {
+		return solve(Runtime.getRuntime().availableProcessors());
+	}
+
+	public static ArrayValueTable solve(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Cannot solve with less than one thread");
+		}
+		ArrayValueTable table = new ArrayValueTable(new float[ValueTable.STATES]);
+		List<List<Integer>> layers = new ArrayList<>();
+		for (int i = 0; i <= PLAYS; i++) {
+			layers.add(new ArrayList<>());
+		}
+		for (int open = 0; open < (1 << PLAYS); open++) {
+			layers.get(Integer.bitCount(open)).add(open);
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			// layer zero is the end of the game, with nothing left to score
+			for (int layer = 1; layer <= PLAYS; layer++) {
+				int[] masks = layers.get(layer).stream().mapToInt(Integer::intValue).toArray();
+				AtomicInteger claimed = new AtomicInteger();
+				Workers.run(pool, "Solver", threads, worker -> {
+					solveLayer(table, masks, claimed);
+					return null;
+				});
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		return table;
+	}
+
+	private static void solveLayer(ArrayValueTable table, int[] masks, AtomicInteger claimed) {
+		float[] values = table.getValues();
+		Turn turn = new Turn(table);
+		int i;
+		while ((i = claimed.getAndIncrement()) < masks.length) {
+			int open = masks[i];
+			int maxUpper = getMaxUpperSubtotal(open);
+			for (int upper = 0; upper <= maxUpper; upper++) {
+				turn.evaluate(open, upper, false);
+				values[ValueTable.getState(open, upper, false)] = (float) turn.getValue();
+				if ((open & YAHTZEE_BIT) == 0) {
+					turn.evaluate(open, upper, true);
+					values[ValueTable.getState(open, upper, true)] = (float) turn.getValue();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the largest capped upper subtotal reachable with the open plays,
+	 * larger subtotals are unreachable and left unsolved.
+	 */
+	private static int getMaxUpperSubtotal(int open) {
+		int max = 0;
+		for (int face = 1; face <= Game.DICE_SIDES; face++) {
+			if ((open & (1 << (face - 1))) == 0) {
+				max += face * Game.DICE_COUNT;
+			}
+		}
+		return Math.min(max, THRESHOLD);
+	}
+
+	/**
+	 * The values of a single round from one state, for every hand and number of
+	 * remaining rerolls. A Turn holds its own buffers so it is reused across
+	 * states, but it is not thread safe.
+	 */
+	public static class Turn {
+
+		private final ValueTable table;
+		private final double[][] handValues = new double[REROLLS + 1][HandIndex.SIZE];
+		private final double[][] keepValues = new double[REROLLS][KEEPS];
+		private int open;
+		private int upper;
+		private boolean yahtzee;
+		private double value;
+
+		public Turn(ValueTable table) {
+			this.table = table;
+		}
+
+		/**
+		 * Evaluates the round for the state, replacing any previous evaluation.
+		 */
+		public void evaluate(int open, int upper, boolean yahtzee) {
+			if (open == 0) {
+				throw new IllegalArgumentException("Cannot evaluate a round without open plays");
+			}
+			this.open = open;
+			this.upper = Math.min(upper, THRESHOLD);
+			this.yahtzee = yahtzee;
+			double[] filled = handValues[0];
+			for (int hand = 0; hand < HandIndex.SIZE; hand++) {
+				filled[hand] = getBestPlayValue(hand);
+			}
+			for (int rerolls = 1; rerolls <= REROLLS; rerolls++) {
+				double[] rolled = keepValues[rerolls - 1];
+				double[] previous = handValues[rerolls - 1];
+				for (int keep = 0; keep < KEEPS; keep++) {
+					rolled[keep] = getExpectedValue(keep, previous);
+				}
+				double[] held = handValues[rerolls];
+				for (int hand = 0; hand < HandIndex.SIZE; hand++) {
+					double best = 0;
+					for (int i = HAND_KEEP_START[hand]; i < HAND_KEEP_START[hand + 1]; i++) {
+						best = Math.max(best, rolled[HAND_KEEPS[i]]);
+					}
+					held[hand] = best;
+				}
+			}
+			value = getExpectedValue(EMPTY_KEEP, handValues[REROLLS]);
+		}
+
+		private static double getExpectedValue(int keep, double[] handValues) {
+			double expected = 0;
+			for (int i = OUTCOME_START[keep]; i < OUTCOME_START[keep + 1]; i++) {
+				expected += OUTCOME_PROBABILITIES[i] * handValues[OUTCOME_HANDS[i]];
+			}
+			return expected;
+		}
+
+		private double getBestPlayValue(int hand) {
+			double best = Double.NEGATIVE_INFINITY;
+			for (int remaining = open; remaining != 0; remaining &= remaining - 1) {
+				int play = Integer.numberOfTrailingZeros(remaining);
+				best = Math.max(best, getPlayValue(play, hand));
+			}
+			if (isBonusYahtzee(hand)) {
+				best = Math.max(best, getBonusYahtzeeValue(hand));
+			}
+			return best;
+		}
+
+		private double getPlayValue(int play, int hand) {
+			int score = SCORES[play][hand];
+			boolean scoredYahtzee = yahtzee || ((1 << play) == YAHTZEE_BIT && score > 0);
+			return score + getFilledValue(play, score, scoredYahtzee);
+		}
+
+		private boolean isBonusYahtzee(int hand) {
+			return yahtzee && (open & YAHTZEE_BIT) == 0 && HandIndex.isYahtzee(hand);
+		}
+
+		private double getBonusYahtzeeValue(int hand) {
+			int group = getBonusYahtzeeFillMask(hand);
+			double best = Double.NEGATIVE_INFINITY;
+			for (int remaining = group; remaining != 0; remaining &= remaining - 1) {
+				int play = Integer.numberOfTrailingZeros(remaining);
+				int score = BONUS_YAHTZEE_SCORES[play][hand];
+				best = Math.max(best, score + getFilledValue(play, score, true));
+			}
+			return BONUS_YAHTZEE_SCORE + best;
+		}
+
+		/**
+		 * Mirrors Game.getBonusYahtzeePlays for the open plays.
+		 */
+		private int getBonusYahtzeeFillMask(int hand) {
+			int upperBit = 1 << (HandIndex.getFace(hand, 0) - 1);
+			if ((open & upperBit) != 0) {
+				return upperBit;
+			}
+			for (int group : BONUS_YAHTZEE_GROUP_MASKS) {
+				if ((open & group) != 0) {
+					return open & group;
+				}
+			}
+			throw new IllegalStateException("There was no valid play for the bonus yahtzee");
+		}
+
+		/**
+		 * Returns the upper bonus earned by filling the play with the score plus the
+		 * value of the resulting state.
+		 */
+		private double getFilledValue(int play, int score, boolean scoredYahtzee) {
+			int nextUpper = upper;
+			int bonus = 0;
+			if ((UPPER_MASK & (1 << play)) != 0) {
+				nextUpper = Math.min(upper + score, THRESHOLD);
+				if (upper < THRESHOLD && nextUpper == THRESHOLD) {
+					bonus = Game.UPPER_SCORE_BONUS;
+				}
+			}
+			int nextOpen = open & ~(1 << play);
+			return nextOpen == 0 ? bonus : bonus + table.getValue(ValueTable.getState(nextOpen, nextUpper, scoredYahtzee));
+		}
+
+		/**
+		 * Returns the expected remaining score at the start of the round.
+		 */
+		public double getValue() {
+			return value;
+		}
+
+		/**
+		 * Returns the expected remaining score of playing optimally from the hand
+		 * with the rerolls remaining.
+		 */
+		public double getHandValue(int hand, int rerolls) {
+			return handValues[rerolls][hand];
+		}
+
+		/**
+		 * Returns the expected remaining score of rerolling everything but the keep.
+		 *
+		 * @param keep the held faces, from getKeep
+		 * @param rerolls the rerolls remaining before this reroll
+		 */
+		public double getKeepValue(int keep, int rerolls) {
+			return keepValues[rerolls - 1][keep];
+		}
+
+		/**
+		 * Returns the expected remaining score of filling the play with the hand,
+		 * or negative infinity if the play is not open.
+		 */
+		public double getPlayValue(Game.Play play, int hand) {
+			if ((open & (1 << play.ordinal())) == 0) {
+				return Double.NEGATIVE_INFINITY;
+			}
+			return getPlayValue(play.ordinal(), hand);
+		}
+
+		/**
+		 * Returns the expected remaining score of playing a bonus yahtzee with the
+		 * hand and filling the best slot allowed alongside it, or negative infinity
+		 * if the hand cannot be played as a bonus yahtzee.
+		 */
+		public double getBonusYahtzeeValue(Game.Play fill, int hand) {
+			if (!isBonusYahtzee(hand) || (getBonusYahtzeeFillMask(hand) & (1 << fill.ordinal())) == 0) {
+				return Double.NEGATIVE_INFINITY;
+			}
+			int score = BONUS_YAHTZEE_SCORES[fill.ordinal()][hand];
+			return BONUS_YAHTZEE_SCORE + score
+				+ getFilledValue(fill.ordinal(), score, true);
+		}
+	}
+}
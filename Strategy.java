@@ -0,0 +1,30 @@
+import java.util.List;
+
+/**
+ * Makes the decisions of a round without a Controller, allowing games to be
+ * played headless by the Simulator.
+ */
+public interface Strategy {
+
+	/**
+	 * Chooses the dice to reroll by setting the rolling flag of each Die. All dice
+	 * are held when this is called.
+	 * 
+	 * @param player the player taking the round
+	 * @param dice the current dice
+	 * @param rerolls the number of rerolls remaining, always greater than zero
+	 * @return true to reroll the dice set as rolling, false to keep the dice
+	 */
+	public boolean chooseReroll(Player player, Dice dice, int rerolls);
+
+	/**
+	 * Chooses the play to fill with the final dice of the round.
+	 * 
+	 * @param player the player taking the round
+	 * @param dice the final dice
+	 * @param plays the plays that may be chosen, never empty
+	 * @param isBonusYahtzee true if choosing the slot filled alongside a bonus yahtzee
+	 * @return one of the given plays
+	 */
+	public Game.Play choosePlay(Player player, Dice dice, List<Game.Play> plays, boolean isBonusYahtzee);
+}
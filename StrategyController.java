@@ -0,0 +1,111 @@
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Controller whose players are bots, each making the decisions of its turns
+ * through its own Strategy instead of prompting a terminal. Nothing is shown, so
+ * a Game driven by it runs headless.
+ */
+public class StrategyController extends Controller {
+
+	private static final GameIO NO_IO = new GameIO() {
+		@Override
+		public String readLine() {
+			return null;
+		}
+
+		@Override
+		public void print(String text) {
+		}
+
+		@Override
+		public void flush() {
+		}
+	};
+
+	private final Map<Player, Strategy> strategies = new IdentityHashMap<>();
+	// the rerolls left in the current turn, as Game counts them
+	private int rerolls;
+
+	/**
+	 * @param players the players of the game
+	 * @param strategies the Strategy of the player at the same index
+	 */
+	public StrategyController(Player[] players, Strategy[] strategies) {
+		super(NO_IO);
+		if (players.length != strategies.length) {
+			throw new IllegalArgumentException(players.length + " players cannot have " + strategies.length + " strategies");
+		}
+		for (int i = 0; i < players.length; i++) {
+			if (null == strategies[i]) {
+				throw new NullPointerException("Strategy of " + players[i].getName() + " cannot be null");
+			}
+			this.strategies.put(players[i], strategies[i]);
+		}
+	}
+
+	@Override
+	public void displayTurn(Player player) {
+		rerolls = Solver.REROLLS;
+	}
+
+	@Override
+	public List<Game.Action> promptAction(Player player, Dice dice) {
+		dice.setAllIsRolling(false);
+		if (getStrategy(player).chooseReroll(player, dice, rerolls) && dice.isAnyRolling()) {
+			rerolls--;
+			return List.of(Game.Action.REROLL);
+		}
+		return List.of(Game.Action.KEEP);
+	}
+
+	@Override
+	public Game.Play promptPlay(Player player, Dice dice, Map<Character, Game.Play> plays, boolean isBonusYahtzee) {
+		List<Game.Play> playable = new ArrayList<>();
+		for (Game.Play play : Game.Play.values()) {
+			if (plays.containsValue(play) && Game.canPlay(player, play, dice)) {
+				playable.add(play);
+			}
+		}
+		return getStrategy(player).choosePlay(player, dice, playable, isBonusYahtzee);
+	}
+
+	@Override
+	public boolean confirm(String message) {
+		return true;
+	}
+
+	@Override
+	public void waitOnEnter() {
+	}
+
+	@Override
+	public void displayHint(Player player, Dice dice, int rerolls) {
+	}
+
+	@Override
+	public void displayDice(Dice dice) {
+	}
+
+	@Override
+	public void displayLeaderboard(Leaderboard leaderboard, Player current) {
+	}
+
+	@Override
+	public void display(String message) {
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	private Strategy getStrategy(Player player) {
+		Strategy strategy = strategies.get(player);
+		if (null == strategy) {
+			throw new IllegalArgumentException(player.getName() + " has no strategy");
+		}
+		return strategy;
+	}
+}
@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * GameIO over a pair of UTF-8 byte streams. Output is queued until the next
+ * read or flush, so each prompt reaches the stream as one write.
+ *
+ * Buffers are kept small, as a hosted table spends nearly all of its life
+ * waiting on a read. Lines longer than MAX_LINE bytes are rejected.
+ */
+public class StreamIO implements GameIO {
+
+	public static final int MAX_LINE = 4096;
+
+	private static final int BUFFER_SIZE = 256;
+
+	private final InputStream in;
+	private final OutputStream out;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int position;
+	private int limit;
+	private byte[] line = new byte[64];
+	private StringBuilder pending = new StringBuilder();
+
+	public StreamIO(InputStream in, OutputStream out) {
+		if (null == in) {
+			throw new NullPointerException("StreamIO in cannot be null");
+		}
+		if (null == out) {
+			throw new NullPointerException("StreamIO out cannot be null");
+		}
+		this.in = in;
+		this.out = out;
+	}
+
+	@Override
+	public String readLine() {
+		flush();
+		int length = 0;
+		try {
+			while (true) {
+				if (position == limit) {
+					int read = in.read(buffer, 0, buffer.length);
+					if (read < 0) {
+						return length == 0 ? null : decode(length);
+					}
+					position = 0;
+					limit = read;
+				}
+				byte b = buffer[position++];
+				if ('\n' == b) {
+					return decode(length);
+				}
+				if (length == MAX_LINE) {
+					throw new IOException("Input line exceeds " + MAX_LINE + " bytes");
+				}
+				if (length == line.length) {
+					line = Arrays.copyOf(line, Math.min(MAX_LINE, length * 2));
+				}
+				line[length++] = b;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private String decode(int length) {
+		if (length > 0 && '\r' == line[length - 1]) {
+			length--;
+		}
+		return new String(line, 0, length, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void print(String text) {
+		pending.append(text);
+	}
+
+	@Override
+	public void flush() {
+		try {
+			if (pending.length() > 0) {
+				byte[] bytes = pending.toString().getBytes(StandardCharsets.UTF_8);
+				if (pending.length() > BUFFER_SIZE * 4) {
+					// let a large frame's buffer go rather than hold it while idle
+					pending = new StringBuilder();
+				} else {
+					pending.setLength(0);
+				}
+				out.write(bytes);
+			}
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,152 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Plays every pairing of a set of strategies against each other in two player
+ * games, each seat driven by a StrategyController, until a sequential test
+ * names the better strategy of the pairing. Pairings that are far apart stop
+ * after a handful of games, so the games are spent on the close ones.
+ *
+ * Games are duplicate games: game n of every pairing rolls the dice of the same
+ * seed in every round for both players, so results are paired by common random
+ * numbers and any difference in score comes from the strategies alone. Workers
+ * claim games in blocks from the pairings still running, and each pairing tests
+ * its games in game order, so a run with the same seed reaches the same verdicts
+ * regardless of the number of threads.
+ */
+public class Tournament {
+
+	public static final int DEFAULT_MAX_GAMES = 20000;
+	public static final double DEFAULT_ELO_MARGIN = 20;
+	public static final double DEFAULT_ERROR = 0.05;
+
+	private static final int BLOCK_SIZE = 8;
+	private static final Map<Integer, Integer> DICE = Map.of(Game.DICE_SIDES, Game.DICE_COUNT);
+
+	private final List<String> names = new ArrayList<>();
+	private final List<Supplier<Strategy>> strategies = new ArrayList<>();
+	private final int threads;
+	private final long seed;
+	private final int maxGames;
+	private final double eloMargin;
+	private final double error;
+
+	/**
+	 * @param entrants the name of each strategy and a supplier of it, called once
+	 * per worker so strategies need not be thread safe
+	 * @param threads the number of workers to play games on
+	 * @param seed the master seed of the dice of every game
+	 * @param maxGames the games after which an undecided pairing is inconclusive
+	 * @param eloMargin the rating difference the test tells apart from its negation
+	 * @param error the chance of a pairing declaring the wrong winner
+	 */
+	public Tournament(Map<String, Supplier<Strategy>> entrants, int threads, long seed, int maxGames,
+			double eloMargin, double error) {
+		if (null == entrants) {
+			throw new NullPointerException("Tournament entrants cannot be null");
+		}
+		if (entrants.size() < 2) {
+			throw new IllegalArgumentException("A tournament needs at least two strategies");
+		}
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Cannot play with less than one thread");
+		}
+		if (maxGames <= 0) {
+			throw new IllegalArgumentException("Pairings must play at least one game");
+		}
+		if (!(eloMargin > 0)) {
+			throw new IllegalArgumentException("Elo margin must be positive, not " + eloMargin);
+		}
+		if (!(error > 0 && error < 0.5)) {
+			throw new IllegalArgumentException("Error rate must be between 0 and 0.5, not " + error);
+		}
+		for (Map.Entry<String, Supplier<Strategy>> entry : entrants.entrySet()) {
+			if (null == entry.getValue()) {
+				throw new NullPointerException("Strategy of " + entry.getKey() + " cannot be null");
+			}
+			names.add(entry.getKey());
+			strategies.add(entry.getValue());
+		}
+		this.threads = threads;
+		this.seed = seed;
+		this.maxGames = maxGames;
+		this.eloMargin = eloMargin;
+		this.error = error;
+	}
+
+	public Tournament(Map<String, Supplier<Strategy>> entrants, int threads, long seed) {
+		this(entrants, threads, seed, DEFAULT_MAX_GAMES, DEFAULT_ELO_MARGIN, DEFAULT_ERROR);
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public TournamentResult run() {
+		List<TournamentResult.Pairing> pairings = new ArrayList<>();
+		for (int first = 0; first < names.size(); first++) {
+			for (int second = first + 1; second < names.size(); second++) {
+				pairings.add(new TournamentResult.Pairing(names, first, second, maxGames, eloMargin, error));
+			}
+		}
+		Workers.run("Tournament", threads, worker -> {
+			work(pairings);
+			return null;
+		});
+		return new TournamentResult(names, pairings);
+	}
+
+	private void work(List<TournamentResult.Pairing> pairings) {
+		Strategy[] own = new Strategy[strategies.size()];
+		int next = 0;
+		while (true) {
+			TournamentResult.Pairing pairing = null;
+			int start = 0;
+			synchronized (pairings) {
+				// claim the next block of the first running pairing after the last one played
+				for (int i = 0; i < pairings.size() && null == pairing; i++) {
+					TournamentResult.Pairing candidate = pairings.get((next + i) % pairings.size());
+					if (!candidate.isDecided() && candidate.claimed < maxGames) {
+						pairing = candidate;
+						next = (next + i + 1) % pairings.size();
+						start = candidate.claimed;
+						candidate.claimed = Math.min(maxGames, start + BLOCK_SIZE);
+					}
+				}
+			}
+			if (null == pairing) {
+				return;
+			}
+			for (int game = start; game < Math.min(maxGames, start + BLOCK_SIZE); game++) {
+				int difference = play(own, pairing.first, pairing.second, game);
+				synchronized (pairings) {
+					pairing.record(game, difference);
+					if (pairing.isDecided()) {
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Plays game n of a pairing, returning the first strategy's score less the
+	 * second's.
+	 */
+	private int play(Strategy[] own, int first, int second, int game) {
+		Player[] players = { new Player(names.get(first)), new Player(names.get(second)) };
+		Strategy[] seats = { getStrategy(own, first), getStrategy(own, second) };
+		new Game(new StrategyController(players, seats), RandomSource.forGame(seed, game).nextLong(), DICE)
+			.start(players);
+		return players[0].score() - players[1].score();
+	}
+
+	private Strategy getStrategy(Strategy[] own, int entrant) {
+		if (null == own[entrant]) {
+			own[entrant] = strategies.get(entrant).get();
+		}
+		return own[entrant];
+	}
+}
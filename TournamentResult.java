@@ -0,0 +1,244 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a Tournament: the games each pairing of strategies played
+ * before its sequential test stopped, and Elo ratings of every strategy from
+ * those games.
+ *
+ * Ratings are updated game by game, taking the nth game of every pairing
+ * before the next, so they do not depend on the order the games finished in.
+ */
+public class TournamentResult {
+
+	public static final double INITIAL_RATING = 1500;
+	private static final double ELO_K = 16;
+
+	private final List<String> names;
+	private final List<Pairing> pairings;
+	private final double[] ratings;
+
+	TournamentResult(List<String> names, List<Pairing> pairings) {
+		this.names = List.copyOf(names);
+		this.pairings = Collections.unmodifiableList(new ArrayList<>(pairings));
+		this.ratings = new double[names.size()];
+		Arrays.fill(ratings, INITIAL_RATING);
+		int games = 0;
+		for (Pairing pairing : pairings) {
+			games = Math.max(games, pairing.getGames());
+		}
+		for (int game = 0; game < games; game++) {
+			for (Pairing pairing : pairings) {
+				if (game < pairing.getGames()) {
+					rate(pairing.first, pairing.second, pairing.getDifference(game));
+				}
+			}
+		}
+	}
+
+	private void rate(int first, int second, int difference) {
+		double expected = 1 / (1 + Math.pow(10, (ratings[second] - ratings[first]) / 400));
+		double actual = difference > 0 ? 1 : difference < 0 ? 0 : 0.5;
+		ratings[first] += ELO_K * (actual - expected);
+		ratings[second] -= ELO_K * (actual - expected);
+	}
+
+	public List<String> getNames() {
+		return names;
+	}
+
+	public List<Pairing> getPairings() {
+		return pairings;
+	}
+
+	public double getRating(String name) {
+		int index = names.indexOf(name);
+		if (index < 0) {
+			throw new IllegalArgumentException(name + " did not play in the tournament");
+		}
+		return ratings[index];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Pairing pairing : pairings) {
+			sb.append(pairing).append('\n');
+		}
+		Integer[] order = new Integer[names.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Double.compare(ratings[b], ratings[a]));
+		sb.append("Ratings:");
+		for (int i : order) {
+			sb.append(String.format("%n  %-12s %6.0f", names.get(i), ratings[i]));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * The games of two strategies, tested after each game in game order with a
+	 * sequential probability ratio test on the decisive games. The test weighs the
+	 * first winning at the Elo margin ahead against the second winning at it, and
+	 * stops once the log likelihood ratio crosses the bound either way.
+	 */
+	public static class Pairing {
+
+		public enum Verdict {
+			RUNNING, FIRST, SECOND, INCONCLUSIVE
+		}
+
+		private static final short PENDING = Short.MIN_VALUE;
+
+		private final String firstName;
+		private final String secondName;
+		final int first;
+		final int second;
+		private final double step;
+		private final double bound;
+		// the first player's score less the second's of each game, as they finish
+		private final short[] differences;
+		// games handed to workers, which may finish after the verdict
+		int claimed;
+		private int games;
+		private int wins;
+		private int losses;
+		private int draws;
+		private long differenceSum;
+		private double llr;
+		private Verdict verdict = Verdict.RUNNING;
+
+		/**
+		 * @param maxGames the games after which an undecided pairing is inconclusive
+		 * @param eloMargin the rating difference the test tells apart from its negation
+		 * @param error the chance of declaring the wrong winner
+		 */
+		Pairing(List<String> names, int first, int second, int maxGames, double eloMargin, double error) {
+			this.firstName = names.get(first);
+			this.secondName = names.get(second);
+			this.first = first;
+			this.second = second;
+			// the log odds of winning at the margin, the ratio each decisive game adds
+			this.step = eloMargin * Math.log(10) / 400;
+			this.bound = Math.log((1 - error) / error);
+			this.differences = new short[maxGames];
+			Arrays.fill(differences, PENDING);
+		}
+
+		/**
+		 * Records a finished game and tests every game now finished in order.
+		 */
+		void record(int game, int difference) {
+			if (Verdict.RUNNING != verdict) {
+				return;
+			}
+			differences[game] = (short) difference;
+			while (games < differences.length && differences[games] != PENDING) {
+				int d = differences[games++];
+				differenceSum += d;
+				if (d > 0) {
+					wins++;
+					llr += step;
+				} else if (d < 0) {
+					losses++;
+					llr -= step;
+				} else {
+					draws++;
+				}
+				if (llr >= bound) {
+					verdict = Verdict.FIRST;
+					return;
+				}
+				if (llr <= -bound) {
+					verdict = Verdict.SECOND;
+					return;
+				}
+			}
+			if (games == differences.length) {
+				verdict = Verdict.INCONCLUSIVE;
+			}
+		}
+
+		int getDifference(int game) {
+			return differences[game];
+		}
+
+		public String getFirstName() {
+			return firstName;
+		}
+
+		public String getSecondName() {
+			return secondName;
+		}
+
+		/**
+		 * Returns the games tested, those played before the verdict.
+		 */
+		public int getGames() {
+			return games;
+		}
+
+		public int getWins() {
+			return wins;
+		}
+
+		public int getLosses() {
+			return losses;
+		}
+
+		public int getDraws() {
+			return draws;
+		}
+
+		/**
+		 * Returns the average score of the first less that of the second.
+		 */
+		public double getAverageMargin() {
+			return games == 0 ? 0 : (double) differenceSum / games;
+		}
+
+		/**
+		 * Returns the rating difference of the first over the second implied by its
+		 * share of the points, infinite if either won every game.
+		 */
+		public double getEloDifference() {
+			double share = (wins + draws / 2.0) / games;
+			return 400 * Math.log10(share / (1 - share));
+		}
+
+		public double getLogLikelihoodRatio() {
+			return llr;
+		}
+
+		public Verdict getVerdict() {
+			return verdict;
+		}
+
+		public boolean isDecided() {
+			return Verdict.RUNNING != verdict;
+		}
+
+		@Override
+		public String toString() {
+			String result;
+			switch (verdict) {
+				case FIRST:
+					result = firstName + " wins";
+					break;
+				case SECOND:
+					result = secondName + " wins";
+					break;
+				case INCONCLUSIVE:
+					result = "inconclusive";
+					break;
+				default:
+					result = "running";
+			}
+			return String.format("%s vs %s: +%d -%d =%d in %d games, margin %.2f, Elo %+.0f, LLR %.2f, %s",
+				firstName, secondName, wins, losses, draws, games, getAverageMargin(), getEloDifference(), llr, result);
+		}
+	}
+}
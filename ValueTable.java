@@ -0,0 +1,60 @@
+/**
+ * The expected final score still to be earned from every state of a single
+ * player game. A state is the set of open plays, the upper section subtotal
+ * (capped at Game.UPPER_SCORE_THRESHOLD since only reaching the threshold
+ * matters) and whether a yahtzee has been scored, making bonus yahtzees
+ * possible.
+ */
+public interface ValueTable {
+
+	public static final int PLAYS = Game.Play.values().length;
+	public static final int UPPER_STATES = Game.UPPER_SCORE_THRESHOLD + 1;
+	public static final int STATES = (1 << PLAYS) * UPPER_STATES * 2;
+
+	/**
+	 * Returns the expected score still to be earned from the state, excluding
+	 * anything already scored.
+	 * 
+	 * @param state the state index from getState
+	 * @return the expected remaining score
+	 */
+	public double getValue(int state);
+
+	public default double getValue(Player player) {
+		return getValue(getState(player));
+	}
+
+	/**
+	 * @param openMask the open plays, with bit Play.ordinal() set for each
+	 * @param upper the upper section subtotal without bonus
+	 * @param yahtzee true if a yahtzee has been scored
+	 * @return the state index
+	 */
+	public static int getState(int openMask, int upper, boolean yahtzee) {
+		return ((openMask * UPPER_STATES) + Math.min(upper, Game.UPPER_SCORE_THRESHOLD)) * 2 + (yahtzee ? 1 : 0);
+	}
+
+	public static int getState(Player player) {
+		return getState(getOpenMask(player), getUpperSubtotal(player), player.hadYahtzee());
+	}
+
+	public static int getOpenMask(Player player) {
+		int mask = 0;
+		for (Game.Play play : Game.Play.values()) {
+			if (!player.isScored(play)) {
+				mask |= 1 << play.ordinal();
+			}
+		}
+		return mask;
+	}
+
+	public static int getUpperSubtotal(Player player) {
+		int upper = 0;
+		for (Game.Play play : Game.Play.values()) {
+			if (play.isUpper()) {
+				upper += player.getScore(play);
+			}
+		}
+		return upper;
+	}
+}
@@ -0,0 +1,74 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a task on a number of workers and returns their results in
+ * worker order, so callers merge them in a repeatable order. An interrupt or a
+ * failed worker ends the run with an IllegalStateException naming the work,
+ * the failure as its cause.
+ */
+public class Workers {
+
+	/**
+	 * The work of one worker.
+	 */
+	public interface Task<T> {
+		/**
+		 * @param worker the index of the worker, from 0
+		 */
+		public T run(int worker) throws Exception;
+	}
+
+	private Workers() {
+	}
+
+	/**
+	 * Runs the task on a new pool of one thread per worker, shut down once the
+	 * run ends.
+	 *
+	 * @param name the work, as in "Simulation failed"
+	 * @param workers the number of times to run the task
+	 * @param task the work of each worker
+	 * @return the result of each worker
+	 */
+	public static <T> List<T> run(String name, int workers, Task<T> task) {
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		try {
+			return run(pool, name, workers, task);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Runs the task on a pool owned by the caller, cancelling every worker if
+	 * the run ends early.
+	 */
+	public static <T> List<T> run(ExecutorService pool, String name, int workers, Task<T> task) {
+		List<Future<T>> futures = new ArrayList<>();
+		try {
+			for (int i = 0; i < workers; i++) {
+				int worker = i;
+				futures.add(pool.submit(() -> task.run(worker)));
+			}
+			List<T> results = new ArrayList<>();
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(name + " was interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(name + " failed", e.getCause());
+		} finally {
+			for (Future<T> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+}
@@ -1,59 +1,544 @@
-import java.util.Scanner;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 public class Yahtzee {
+
+	private static final String DEFAULT_VALUE_TABLE = "yahtzee.vt";
+	private static final String DEFAULT_SCORES = "yahtzee-scores";
+	private static final int HIGH_SCORES_SHOWN = 10;
+
 	public static void main(String[] args) {
-		// TODO: Implement main method
 		if (args.length == 0) {
 			prompt();
 		} else {
 			switch (args[0]) {
 				case "-i":
 					// independent game
-					game();
+					game(args);
+					break;
+				case "-resume":
+					// continue a journaled game
+					resume(args);
+					break;
+				case "-replay":
+					// scorecards of a journaled game
+					replay(args);
 					break;
 				case "-d":
-					// dependent game
+					// scripted games
+					script(args);
+					break;
+				case "-solve":
+					solve(args);
+					break;
+				case "-s":
+					// headless simulation
+					simulate(args);
+					break;
+				case "-archive":
+					// statistics of archived games
+					readArchive(args);
+					break;
+				case "-server":
+					// hosted tables
+					serve(args);
+					break;
+				case "-scores":
+					// all time leaderboard
+					scores(args);
+					break;
+				case "-query":
+					// analytics of archived games held in memory
+					query(args);
+					break;
+				case "-import":
+					// recorded scoresheets
+					importScoresheet(args);
+					break;
+				case "-tournament":
+					// strategies played against each other
+					tournament(args);
 					break;
 			}
 		}
 	}
 
+	/**
+	 * -s [games] [threads] [seed] [archive [rolls]]
+	 */
+	private static void simulate(String[] args) {
+		long games = args.length > 1 ? Long.parseLong(args[1]) : 100000;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		Simulator simulator = args.length > 3
+			? new Simulator(GreedyStrategy::new, threads, Long.parseLong(args[3]))
+			: new Simulator(GreedyStrategy::new, threads);
+		long start = System.nanoTime();
+		SimulationResult result;
+		if (args.length > 4) {
+			try (GameArchive.Writer archive = GameArchive.create(Path.of(args[4]),
+					args.length > 5 && "rolls".equals(args[5]))) {
+				result = simulator.run(games, archive);
+			} catch (IOException e) {
+				System.err.println("Could not write game archive: " + e.getMessage());
+				return;
+			}
+		} else {
+			result = simulator.run(games);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println(result);
+		System.out.printf("Simulated %d games on %d threads in %.2fs (%.0f games/s), seed %d%n",
+			games, threads, seconds, games / seconds, simulator.getSeed());
+	}
+
+	/**
+	 * -tournament [max games] [threads] [seed]
+	 */
+	private static void tournament(String[] args) {
+		ValueTable table = loadValueTable();
+		if (null == table) {
+			System.err.println("A tournament needs the value table of the optimal strategy, create one with -solve");
+			return;
+		}
+		Map<String, Supplier<Strategy>> entrants = new LinkedHashMap<>();
+		entrants.put("greedy", GreedyStrategy::new);
+		entrants.put("optimal", () -> new OptimalStrategy(new Advisor(table)));
+		int maxGames = args.length > 1 ? Integer.parseInt(args[1]) : Tournament.DEFAULT_MAX_GAMES;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : RandomSource.create().nextLong();
+		Tournament tournament = new Tournament(entrants, threads, seed, maxGames,
+			Tournament.DEFAULT_ELO_MARGIN, Tournament.DEFAULT_ERROR);
+		long start = System.nanoTime();
+		TournamentResult result = tournament.run();
+		System.out.println(result);
+		System.out.printf("Played on %d threads in %.2fs, seed %d%n", threads, (System.nanoTime() - start) / 1e9, seed);
+	}
+
+	/**
+	 * -archive file
+	 */
+	private static void readArchive(String[] args) {
+		Path path = Path.of(args[1]);
+		SimulationResult result = new SimulationResult();
+		long start = System.nanoTime();
+		try (GameArchive.Reader reader = GameArchive.open(path)) {
+			GameArchive.Block block;
+			while (null != (block = reader.next())) {
+				result.add(block);
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.println(result);
+			System.out.printf("Read %d games in %.2fs (%.0f MB/s, %.2f bytes a game)%n", result.getGames(), seconds,
+				Files.size(path) / seconds / 1e6, (double) Files.size(path) / Math.max(1, result.getGames()));
+		} catch (IOException e) {
+			System.err.println("Could not read game archive: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * -query archive [min yahtzees] [threads]
+	 */
+	private static void query(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: -query archive [min yahtzees] [threads]");
+			return;
+		}
+		int minYahtzees = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		try (ScorecardStore store = new ScorecardStore(threads)) {
+			long start = System.nanoTime();
+			try (GameArchive.Reader reader = GameArchive.open(Path.of(args[1]))) {
+				GameArchive.Block block;
+				while (null != (block = reader.next())) {
+					store.add(block);
+				}
+			} catch (IOException e) {
+				System.err.println("Could not read game archive: " + e.getMessage());
+				return;
+			}
+			store.trimToSize();
+			System.out.printf("Loaded %d games in %.2fs (%.2f bytes a game)%n", store.size(),
+				(System.nanoTime() - start) / 1e9, (double) store.getBytes() / Math.max(1, store.size()));
+			start = System.nanoTime();
+			System.out.println(store.query());
+			System.out.printf("Queried every game on %d threads in %.3fs%n%n", threads,
+				(System.nanoTime() - start) / 1e9);
+			start = System.nanoTime();
+			System.out.println(store.query(store.yahtzeesAtLeast(minYahtzees)));
+			System.out.printf("Queried games with at least %d yahtzees on %d threads in %.3fs%n", minYahtzees,
+				threads, (System.nanoTime() - start) / 1e9);
+		}
+	}
+
+	private static void solve(String[] args) {
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		long start = System.nanoTime();
+		ValueTable table = Solver.solve(threads);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("Optimal expected score %.4f, solved on %d threads in %.2fs%n",
+			table.getValue(ValueTable.getState((1 << ValueTable.PLAYS) - 1, 0, false)), threads, seconds);
+		if (args.length > 2) {
+			ValueTableFile.Encoding encoding = args.length > 3
+				? ValueTableFile.Encoding.valueOf(args[3].toUpperCase())
+				: ValueTableFile.Encoding.FLOAT32;
+			try {
+				ValueTableFile.write(Path.of(args[2]), table, encoding);
+				System.out.println("Wrote " + encoding + " value table to " + args[2]);
+			} catch (IOException e) {
+				System.err.println("Could not write value table: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Asks whether to import scoresheets of recorded games or play a game.
+	 */
 	private static void prompt() {
-		// TODO
-		System.out.println("Would you like to play as a scoresheet?");
-	}
-
-	private static void game() {
-		Scanner scan = new Scanner(System.in);
-		// Get number of players etc
-		int numPlayers = ask("How many players are there?", scan, 1, 10);
-		Player[] players = new Player[numPlayers];
-		String name = "";
-		for (int i = 0; i < numPlayers; i++) {
-			System.out.print("What is player " + (i + 1) + "'s name? ");
-			name = scan.nextLine();
-			players[i] = new Player(name);
-		}
-		Game game = new Game(new Controller(scan));
-		game.start(players);
-	}
-
-	private static int ask(String msg, Scanner scan, int min, int max) {
-		boolean invalid = true;
-		int input = 0;
-		do {
-			System.out.print(msg + " (" + min + "-" + max + "): ");
-			if (scan.hasNextLine()) {
-				if (scan.hasNextInt()) {
-					input = scan.nextInt();
-					scan.nextLine();
-					if (input >= min && input <= max)
-						invalid = false;
-				} else
-					scan.nextLine();
-			}
-
-		} while (invalid);
-		return input;
+		GameIO io = new StreamIO(System.in, System.out);
+		io.print("Would you like to play as a scoresheet? (y|n): ");
+		String answer = io.readLine();
+		if (null == answer) {
+			return;
+		}
+		if (!"y".equalsIgnoreCase(answer.trim())) {
+			game(new Controller(io, isAnsiTerminal()), null);
+			return;
+		}
+		io.print("Scoresheet file of recorded games to import: ");
+		String path = io.readLine();
+		if (null != path && !path.isBlank()) {
+			importScoresheet(Path.of(path.trim()), Runtime.getRuntime().availableProcessors());
+		}
+	}
+
+	/**
+	 * -import scoresheet [threads]
+	 */
+	private static void importScoresheet(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: -import scoresheet [threads]");
+			return;
+		}
+		importScoresheet(Path.of(args[1]),
+			args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors());
+	}
+
+	private static void importScoresheet(Path path, int threads) {
+		long start = System.nanoTime();
+		try {
+			ScoresheetStats stats = new ScoresheetImporter(threads).importFile(path);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.print(stats);
+			System.out.printf("Imported %d games from %s on %d threads in %.2fs%n", stats.getGames(), path, threads,
+				seconds);
+		} catch (IOException e) {
+			System.err.println("Could not read scoresheet: " + e.getMessage());
+		} catch (IllegalArgumentException e) {
+			System.err.println("Invalid scoresheet: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * -i [journal]
+	 */
+	private static void game(String[] args) {
+		game(new Controller(new StreamIO(System.in, System.out), isAnsiTerminal()), args.length > 1 ? args[1] : null);
+	}
+
+	private static void game(Controller controller, String journal) {
+		try {
+			// Get number of players etc
+			Player[] players = controller.promptPlayers(GameServer.MAX_PLAYERS);
+			play(controller, players, 0, null != journal ? GameJournal.create(Path.of(journal)) : null);
+		} catch (NoSuchElementException e) {
+			// input ended
+		} catch (IOException e) {
+			System.err.println("Could not write game journal: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * -d script
+	 *
+	 * Plays every game of the script, a file of ScriptIO game scripts or - for
+	 * standard input, printing only the final scores of each game.
+	 */
+	private static void script(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: -d script");
+			return;
+		}
+		Map<Integer, Integer> diceMap = getDiceMap();
+		long start = System.nanoTime();
+		int games = 0;
+		// flushed however the script ends, so the results of the games played are kept
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+		try (ScriptIO io = "-".equals(args[1]) ? new ScriptIO(System.in) : ScriptIO.open(Path.of(args[1]))) {
+			Controller controller = new Controller(io);
+			controller.setQuiet(true);
+			while (io.nextGame()) {
+				games++;
+				StringBuilder result = new StringBuilder();
+				result.append("game ").append(games).append(" (seed ").append(io.getSeed()).append("):");
+				Player[] players = null;
+				String ending = "";
+				try {
+					players = controller.promptPlayers(GameServer.MAX_PLAYERS);
+					new Game(controller, RandomSource.create(io.getSeed()), diceMap).start(players);
+					for (Player player : players) {
+						if (player.getOpenPlays() != 0) {
+							ending = " quit";
+						}
+					}
+				} catch (NoSuchElementException e) {
+					ending = " script ended at line " + io.getLineNumber();
+				}
+				int unread = io.finishGame();
+				if (unread > 0) {
+					ending += " " + unread + " lines unread";
+				}
+				for (int i = 0; null != players && i < players.length; i++) {
+					result.append(i == 0 ? " " : ", ").append(players[i].getName()).append(' ').append(players[i].score());
+				}
+				out.write(result.append(ending).append('\n').toString());
+			}
+		} catch (IOException | UncheckedIOException e) {
+			System.err.println("Could not read script: " + e.getMessage());
+		} catch (IllegalArgumentException e) {
+			System.err.println("Invalid script: " + e.getMessage());
+		} finally {
+			try {
+				out.flush();
+			} catch (IOException e) {
+				System.err.println("Could not write results: " + e.getMessage());
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.err.printf("Played %d scripted games in %.2fs (%.0f games/s)%n", games, seconds, games / seconds);
+	}
+
+	/**
+	 * -resume journal
+	 */
+	private static void resume(String[] args) {
+		Path path = Path.of(args[1]);
+		try {
+			JournalReplayer replayer = JournalReplayer.open(path);
+			if (replayer.isFinished()) {
+				System.out.println("The game of " + path + " is already finished");
+				return;
+			}
+			Player[] players = replayer.replayTo(replayer.getTurns());
+			Controller controller = new Controller(new StreamIO(System.in, System.out), isAnsiTerminal());
+			play(controller, players, replayer.getTurns(), GameJournal.resume(path, replayer));
+		} catch (NoSuchElementException e) {
+			// input ended
+		} catch (IOException e) {
+			System.err.println("Could not resume game journal: " + e.getMessage());
+		}
+	}
+
+	private static void play(Controller controller, Player[] players, int turn, GameJournal journal)
+			throws IOException {
+		ValueTable table = loadValueTable();
+		controller.setAdvisor(null == table ? null : new Advisor(table));
+		Map<Integer, Integer> diceMap = getDiceMap();
+		Game game = new Game(controller, RandomSource.create(), diceMap);
+		ScoreStore store = openScores(controller, diceMap);
+		try {
+			long count = 0;
+			if (null != store) {
+				game.addListener(recordScores(store, controller));
+				count = store.getCount();
+			}
+			if (null == journal) {
+				game.start(players, turn);
+			} else {
+				try (journal) {
+					game.addListener(journal);
+					game.start(players, turn);
+				}
+			}
+			if (null != store && store.getCount() > count) {
+				controller.displayHighScores(store.getTop(HIGH_SCORES_SHOWN), players);
+				controller.flush();
+			}
+		} finally {
+			if (null != store) {
+				try {
+					store.close();
+				} catch (IOException e) {
+					System.err.println("Could not compact scores: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Opens the all time leaderboard, or returns null if it cannot be opened,
+	 * such as while another game has it open, so the game is played unrecorded.
+	 * Games of other dice than the standard five six sided dice are never
+	 * recorded, as their scores do not compare.
+	 */
+	private static ScoreStore openScores(Controller controller, Map<Integer, Integer> diceMap) {
+		if (!diceMap.equals(Map.of(Game.DICE_SIDES, Game.DICE_COUNT))) {
+			controller.display("Scores will not be recorded for dice other than " + Game.DICE_COUNT + "d"
+				+ Game.DICE_SIDES);
+			return null;
+		}
+		try {
+			return ScoreStore.open(getScoresPath());
+		} catch (IOException e) {
+			controller.display("Scores will not be recorded: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Records finished games in the store, reporting a failure to write them
+	 * rather than ending the game before its result is shown.
+	 */
+	private static GameListener recordScores(ScoreStore store, Controller controller) {
+		return new GameListener() {
+			@Override
+			public void gameEnded(Player[] ended, boolean isQuit) {
+				try {
+					store.gameEnded(ended, isQuit);
+				} catch (UncheckedIOException e) {
+					controller.display("Could not record scores: " + e.getCause().getMessage());
+				}
+			}
+		};
+	}
+
+	/**
+	 * -scores [count] [player]
+	 */
+	private static void scores(String[] args) {
+		int count = args.length > 1 ? Integer.parseInt(args[1]) : HIGH_SCORES_SHOWN;
+		try (ScoreStore store = ScoreStore.open(getScoresPath())) {
+			System.out.println(store.getCount() + " scores of " + store.getPlayerCount() + " players");
+			int rank = 1;
+			for (ScoreStore.Entry entry : store.getTop(Math.min(count, store.getCapacity()))) {
+				System.out.printf("%3d. %-" + Game.MAX_PLAYER_NAME + "s  %3d%n", rank++, entry.getName(),
+					entry.getScore());
+			}
+			if (args.length > 2) {
+				ScoreStore.Entry best = store.getBest(args[2]);
+				System.out.println(null == best ? args[2] + " has no scores"
+					: "Best score of " + args[2] + " is " + best.getScore());
+			}
+		} catch (IOException e) {
+			System.err.println("Could not read scores: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the dice rolled each turn, from the yahtzee.dice system property as
+	 * counts of dice of each number of sides, such as 5d6 or 10d6,10d8, by default
+	 * five six sided dice.
+	 */
+	private static Map<Integer, Integer> getDiceMap() {
+		String spec = System.getProperty("yahtzee.dice");
+		if (null == spec) {
+			return Map.of(Game.DICE_SIDES, Game.DICE_COUNT);
+		}
+		Map<Integer, Integer> diceMap = new HashMap<>();
+		for (String part : spec.split(",")) {
+			String[] countSides = part.trim().split("d");
+			if (countSides.length != 2) {
+				throw new IllegalArgumentException("Dice " + part + " are not of the form 5d6");
+			}
+			diceMap.merge(Integer.parseInt(countSides[1]), Integer.parseInt(countSides[0]), Integer::sum);
+		}
+		return diceMap;
+	}
+
+	/**
+	 * Returns the directory of the all time leaderboard, at the yahtzee.scores
+	 * system property or yahtzee-scores in the working directory.
+	 */
+	private static Path getScoresPath() {
+		return Path.of(System.getProperty("yahtzee.scores", DEFAULT_SCORES));
+	}
+
+	/**
+	 * -replay journal [turn]
+	 */
+	private static void replay(String[] args) {
+		try {
+			JournalReplayer replayer = JournalReplayer.open(Path.of(args[1]));
+			int turn = args.length > 2 ? Integer.parseInt(args[2]) : replayer.getTurns();
+			System.out.println("Turn " + turn + " of " + replayer.getTurns() + " completed turns"
+				+ (replayer.isFinished() ? ", game finished" : ""));
+			for (Player player : replayer.replayTo(turn)) {
+				System.out.println("\n" + player);
+			}
+		} catch (IOException e) {
+			System.err.println("Could not read game journal: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Hosts tables on a loopback TCP port, or a Unix domain socket at a path.
+	 *
+	 * -server [port|path] [max tables]
+	 */
+	private static void serve(String[] args) {
+		String where = args.length > 1 ? args[1] : "7300";
+		int maxTables = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+		SocketAddress address = where.matches("\\d+")
+			? new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(where))
+			: UnixDomainSocketAddress.of(where);
+		try (GameServer server = new GameServer(address, loadValueTable(), maxTables)) {
+			server.bind();
+			System.out.println("Hosting up to " + maxTables + " tables on " + server.getLocalAddress()
+				+ (server.isVirtual() ? " with virtual threads" : " with platform threads"));
+			server.run();
+		} catch (IOException e) {
+			System.err.println("Could not host tables: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns true if attached to a terminal that understands ANSI escapes.
+	 */
+	private static boolean isAnsiTerminal() {
+		String term = System.getenv("TERM");
+		return null != System.console() && null != term && !"dumb".equals(term);
+	}
+
+	/**
+	 * Maps the value table at the yahtzee.table system property, or yahtzee.vt in
+	 * the working directory, if one exists.
+	 * 
+	 * @return the table or null if there is no table
+	 */
+	private static ValueTable loadValueTable() {
+		Path path = Path.of(System.getProperty("yahtzee.table", DEFAULT_VALUE_TABLE));
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+		try {
+			return ValueTableFile.map(path);
+		} catch (IOException e) {
+			System.err.println("Hints disabled, could not load value table: " + e.getMessage());
+			return null;
+		}
 	}
 
 }
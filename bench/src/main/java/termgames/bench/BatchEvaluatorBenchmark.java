@@ -0,0 +1,69 @@
+package termgames.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import termgames.BatchEvaluator;
+import termgames.Game;
+
+/**
+ * Time per hand of the scalar and vector batch evaluators.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BatchEvaluatorBenchmark {
+
+    private static final int HANDS = 4096;
+
+    @Param({"scalar", "vector"})
+    private String evaluatorName;
+
+    private BatchEvaluator evaluator;
+    private final byte[][] faces = new byte[Game.DICE_COUNT][HANDS];
+    private final byte[] out = new byte[HANDS];
+
+    @Setup
+    public void setup() {
+        evaluator = "scalar".equals(evaluatorName) ? BatchEvaluator.scalar() : BatchEvaluator.create();
+        if (!"scalar".equals(evaluatorName) && evaluator instanceof BatchEvaluator.Scalar) {
+            throw new IllegalStateException("Vector evaluator is unavailable");
+        }
+        Random random = new Random(9);
+        for (byte[] die : faces) {
+            for (int i = 0; i < HANDS; i++) {
+                die[i] = (byte) (random.nextInt(Game.DICE_SIDES) + 1);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HANDS)
+    public byte[] evaluate() {
+        evaluator.evaluate(faces, 0, HANDS, out);
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HANDS)
+    public byte[] scoreKind3() {
+        evaluator.score(Game.Play.KIND_3, faces, 0, HANDS, out);
+        return out;
+    }
+}
@@ -0,0 +1,33 @@
+package termgames.bench;
+
+import java.util.Map;
+import java.util.Random;
+
+import termgames.Dice;
+import termgames.Die;
+import termgames.Game;
+
+/**
+ * Deterministic random hands shared by the benchmarks, so every run measures
+ * the same inputs.
+ */
+final class BenchmarkHands {
+
+    static final int COUNT = 1024;
+    static final int MASK = COUNT - 1;
+
+    private BenchmarkHands() {
+    }
+
+    static Dice[] create(long seed) {
+        Random random = new Random(seed);
+        Dice[] hands = new Dice[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            hands[i] = new Dice(Map.of(Game.DICE_SIDES, Game.DICE_COUNT));
+            for (Die die : hands[i].getDice()) {
+                die.setFace(random.nextInt(Game.DICE_SIDES) + 1);
+            }
+        }
+        return hands;
+    }
+}
@@ -0,0 +1,122 @@
+package termgames.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark with the GC profiler and compares the results with the
+ * committed baseline, flagging any benchmark slower or allocating more than the
+ * tolerance allows.
+ *
+ * java -jar benchmarks.jar [record] [include regex]
+ *
+ * The baseline is read from baseline.csv in the working directory, or the
+ * bench.baseline system property, and replaced when run with record.
+ */
+public class BenchmarkMain {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    private static final double TOLERANCE = 0.10;
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        boolean record = args.length > 0 && "record".equals(args[0]);
+        String include = args.length > (record ? 1 : 0) ? args[record ? 1 : 0] : ".*Benchmark.*";
+        Path baseline = Path.of(System.getProperty("bench.baseline", "baseline.csv"));
+
+        Options options = new OptionsBuilder()
+            .include(include)
+            .addProfiler(GCProfiler.class)
+            .build();
+        Map<String, String[]> results = toRows(new Runner(options).run());
+
+        if (record) {
+            List<String> lines = new ArrayList<>();
+            lines.add("benchmark,score,error,unit,alloc_bytes_per_op");
+            for (Map.Entry<String, String[]> entry : results.entrySet()) {
+                lines.add(entry.getKey() + "," + String.join(",", entry.getValue()));
+            }
+            Files.write(baseline, lines);
+            System.out.println("Recorded baseline of " + results.size() + " benchmarks to " + baseline);
+        } else if (Files.exists(baseline)) {
+            compare(readBaseline(baseline), results);
+        } else {
+            System.out.println("No baseline at " + baseline + ", run with record to create one");
+        }
+    }
+
+    private static Map<String, String[]> toRows(Collection<RunResult> runs) {
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        for (RunResult run : runs) {
+            StringBuilder name = new StringBuilder(run.getParams().getBenchmark());
+            for (String key : run.getParams().getParamsKeys()) {
+                name.append(':').append(key).append('=').append(run.getParams().getParam(key));
+            }
+            Result<?> primary = run.getPrimaryResult();
+            Result<?> allocation = run.getSecondaryResults().get(ALLOCATION);
+            rows.put(name.toString(), new String[] {
+                format(primary.getScore()),
+                format(primary.getScoreError()),
+                primary.getScoreUnit(),
+                null == allocation ? "NaN" : format(allocation.getScore())
+            });
+        }
+        return rows;
+    }
+
+    private static String format(double value) {
+        return String.format("%.3f", value);
+    }
+
+    private static Map<String, String[]> readBaseline(Path baseline) throws IOException {
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(baseline);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] columns = line.split(",");
+            String[] values = new String[columns.length - 1];
+            System.arraycopy(columns, 1, values, 0, values.length);
+            rows.put(columns[0], values);
+        }
+        return rows;
+    }
+
+    private static void compare(Map<String, String[]> baseline, Map<String, String[]> results) {
+        int regressions = 0;
+        System.out.printf("%n%-70s %12s %12s %8s %12s %12s%n", "Benchmark", "Baseline", "Current", "Change",
+            "Base B/op", "B/op");
+        for (Map.Entry<String, String[]> entry : results.entrySet()) {
+            String[] current = entry.getValue();
+            String[] base = baseline.get(entry.getKey());
+            if (null == base) {
+                System.out.printf("%-70s %12s %12s%n", entry.getKey(), "-", current[0]);
+                continue;
+            }
+            double baseScore = Double.parseDouble(base[0]);
+            double score = Double.parseDouble(current[0]);
+            double change = (score - baseScore) / baseScore;
+            double baseAllocation = Double.parseDouble(base[3]);
+            double allocation = Double.parseDouble(current[3]);
+            // average time benchmarks, so a higher score is slower
+            boolean regressed = change > TOLERANCE || allocation > baseAllocation * (1 + TOLERANCE) + 1;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-70s %12.3f %12.3f %+7.1f%% %12.1f %12.1f%s%n", entry.getKey(), baseScore, score,
+                change * 100, baseAllocation, allocation, regressed ? "  REGRESSION" : "");
+        }
+        System.out.println(regressions == 0 ? "No regressions" : regressions + " regression(s) over baseline");
+    }
+}
@@ -0,0 +1,50 @@
+package termgames.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import termgames.Dice;
+import termgames.DiceEvaluator;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiceEvaluatorBenchmark {
+
+    private final DiceEvaluator evaluator = new DiceEvaluator();
+    private Dice[] hands;
+    private int next;
+
+    @Setup
+    public void setup() {
+        hands = BenchmarkHands.create(2);
+    }
+
+    @Benchmark
+    public boolean isKind() {
+        return evaluator.isKind(hands[next++ & BenchmarkHands.MASK], 3);
+    }
+
+    @Benchmark
+    public boolean isHouse() {
+        return evaluator.isHouse(hands[next++ & BenchmarkHands.MASK]);
+    }
+
+    @Benchmark
+    public boolean isStraight() {
+        return evaluator.isStraight(hands[next++ & BenchmarkHands.MASK], 4);
+    }
+}
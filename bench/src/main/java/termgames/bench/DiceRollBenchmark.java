@@ -0,0 +1,70 @@
+package termgames.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import termgames.Dice;
+import termgames.Game;
+import termgames.RandomSource;
+
+/**
+ * Time per rolled hand of looping Dice.roll against the bulk rollers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiceRollBenchmark {
+
+    private static final int HANDS = 1024;
+
+    private Dice dice;
+    private final byte[] bytes = new byte[HANDS * Game.DICE_COUNT];
+    private final int[] ints = new int[HANDS * Game.DICE_COUNT];
+
+    @Setup
+    public void setup() {
+        dice = new Dice(Map.of(Game.DICE_SIDES, Game.DICE_COUNT), RandomSource.create(8));
+        dice.setAllIsRolling(true);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HANDS)
+    public int roll() {
+        int sum = 0;
+        for (int i = 0; i < HANDS; i++) {
+            List<Integer> rolls = dice.roll();
+            sum += rolls.get(0);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HANDS)
+    public byte[] rollIntoBytes() {
+        dice.rollInto(bytes, 0, HANDS);
+        return bytes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HANDS)
+    public int[] rollIntoInts() {
+        dice.rollInto(ints, 0, HANDS);
+        return ints;
+    }
+}
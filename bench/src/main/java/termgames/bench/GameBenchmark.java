@@ -0,0 +1,37 @@
+package termgames.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import termgames.GreedyStrategy;
+import termgames.RandomSource;
+import termgames.Player;
+import termgames.Simulator;
+import termgames.Strategy;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    private final Strategy strategy = new GreedyStrategy();
+    private final RandomGenerator random = RandomSource.create(5);
+
+    @Benchmark
+    public Player headlessGame() {
+        return Simulator.playGame(strategy, random);
+    }
+}
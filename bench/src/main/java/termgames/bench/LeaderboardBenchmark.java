@@ -0,0 +1,74 @@
+package termgames.bench;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import termgames.Controller;
+import termgames.Game;
+import termgames.Leaderboard;
+import termgames.Player;
+import termgames.StreamIO;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int players;
+
+    private Player[] table;
+    private Leaderboard leaderboard;
+    private Controller controller;
+    private int turn;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(3);
+        table = new Player[players];
+        for (int i = 0; i < players; i++) {
+            table[i] = new Player("p" + i);
+            for (Game.Play play : Game.Play.values()) {
+                if (random.nextBoolean()) {
+                    table[i].play(play, random.nextInt(30));
+                }
+            }
+        }
+        leaderboard = new Leaderboard(table);
+        // measure the leaderboard without a terminal
+        controller = new Controller(new StreamIO(InputStream.nullInputStream(), OutputStream.nullOutputStream()));
+    }
+
+    @Benchmark
+    public void displayLeaderboard() {
+        controller.displayLeaderboard(table, table[players / 2]);
+        controller.flush();
+    }
+
+    // a turn of a game: one player scores, then the leaderboard is shown
+    @Benchmark
+    public void rankedLeaderboard() {
+        Player current = table[turn++ % players];
+        current.play(Game.Play.CHANCE, turn & 1);
+        leaderboard.update(current);
+        controller.displayLeaderboard(leaderboard, current);
+        controller.flush();
+    }
+}
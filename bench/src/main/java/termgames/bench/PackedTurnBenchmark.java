@@ -0,0 +1,54 @@
+package termgames.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import termgames.Game;
+import termgames.GreedyStrategy;
+import termgames.PackedTurn;
+import termgames.Player;
+import termgames.RandomSource;
+
+/**
+ * The packed turn path, which should allocate nothing once warmed up: the
+ * baseline records 0 bytes per op, so any allocation is flagged by
+ * BenchmarkMain. Compare with GameBenchmark.headlessGame for the same games
+ * played on Dice.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackedTurnBenchmark {
+
+    private final PackedTurn turn = new PackedTurn(new GreedyStrategy(), RandomSource.create(5));
+    private final Player player = new Player("bench");
+    private int round;
+
+    @Benchmark
+    public Game.Play turn() {
+        if (round == Game.ROUNDS) {
+            player.reset();
+            round = 0;
+        }
+        round++;
+        return turn.play(player);
+    }
+
+    @Benchmark
+    public Player game() {
+        turn.playGame(player);
+        return player;
+    }
+}
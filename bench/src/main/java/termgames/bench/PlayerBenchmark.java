@@ -0,0 +1,48 @@
+package termgames.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import termgames.Game;
+import termgames.Player;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+
+    // number of plays filled on the scorecard
+    @Param({"6", "13"})
+    private int filled;
+
+    private Player player;
+
+    @Setup
+    public void setup() {
+        player = new Player("bench");
+        Game.Play[] plays = Game.Play.values();
+        for (int i = 0; i < filled; i++) {
+            Game.Play play = plays[(i * 5) % plays.length];
+            player.play(play, play.isUpper() ? 3 * (play.ordinal() + 1) : 20);
+        }
+    }
+
+    @Benchmark
+    public int score() {
+        return player.score();
+    }
+}
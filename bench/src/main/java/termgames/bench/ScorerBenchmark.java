@@ -0,0 +1,50 @@
+package termgames.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import termgames.Dice;
+import termgames.Game;
+import termgames.Player;
+import termgames.Scorer;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScorerBenchmark {
+
+    @Param({"ONE", "TWO", "THREE", "FOUR", "FIVE", "SIX", "KIND_3", "KIND_4",
+        "STRAIGHT_4", "STRAIGHT_5", "FULL_HOUSE", "CHANCE", "YAHTZEE"})
+    private String playName;
+
+    private Game.Play play;
+    private Dice[] hands;
+    private Player player;
+    private int next;
+
+    @Setup
+    public void setup() {
+        play = Game.Play.valueOf(playName);
+        hands = BenchmarkHands.create(1);
+        player = new Player("bench");
+    }
+
+    @Benchmark
+    public int score() {
+        return Scorer.score(play, player, hands[next++ & BenchmarkHands.MASK], false);
+    }
+}
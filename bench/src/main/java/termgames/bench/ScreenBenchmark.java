@@ -0,0 +1,118 @@
+package termgames.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import termgames.Controller;
+import termgames.Game;
+import termgames.GameIO;
+import termgames.GameListener;
+import termgames.Player;
+import termgames.RandomSource;
+
+/**
+ * Plays the same two player game through the Controller in plain and screen
+ * mode, answering every prompt with a bot that selects and rerolls all dice
+ * twice a turn and fills the first play accepted. Prints the bytes written and
+ * dice rolled per turn at the end of each trial, the bytes being the cost the
+ * screen diff is meant to cut.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScreenBenchmark {
+
+    private static final int PLAYERS = 2;
+
+    @Param({"false", "true"})
+    public boolean screen;
+
+    private BotIO io;
+    private int rolls;
+
+    @Benchmark
+    public Player[] scriptedGame() {
+        io = new BotIO();
+        rolls = 0;
+        Controller controller = new Controller(io, screen);
+        Player[] players = controller.promptPlayers(PLAYERS);
+        Game game = new Game(controller, RandomSource.create(1000), Map.of(6, 5));
+        game.addListener(new GameListener() {
+            @Override
+            public void diceRolled(Player player, int[] faces) {
+                rolls++;
+            }
+        });
+        game.start(players);
+        return players;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.printf("%n%s mode: %d bytes and %d rolls per turn%n", screen ? "screen" : "plain",
+            io.bytes / (PLAYERS * Game.ROUNDS), rolls / (PLAYERS * Game.ROUNDS));
+    }
+
+    private static class BotIO implements GameIO {
+
+        private static final String PLAY_KEYS = "123456kKsShcy";
+        private static final String CLEAR_LINE = "\u001b[K";
+
+        private long bytes;
+        private String last = "";
+        private int rerolls;
+        private int playKey;
+
+        @Override
+        public String readLine() {
+            String prompt = last.endsWith(CLEAR_LINE) ? last.substring(0, last.length() - CLEAR_LINE.length()) : last;
+            if (prompt.endsWith("Enter play: ")) {
+                // rejected plays are prompted again, so try the next key
+                rerolls = 0;
+                return String.valueOf(PLAY_KEYS.charAt(playKey++ % PLAY_KEYS.length()));
+            }
+            playKey = 0;
+            if (prompt.endsWith("): ") && prompt.contains("How many players")) {
+                return String.valueOf(PLAYERS);
+            }
+            if (prompt.endsWith("name? ")) {
+                return "Bot";
+            }
+            if (prompt.endsWith("(? for help): ")) {
+                // the dice are unselected after every roll, so select them all again
+                return rerolls++ < 2 ? "ar" : "k";
+            }
+            if (prompt.endsWith("(y|n): ")) {
+                return "y";
+            }
+            return "";
+        }
+
+        @Override
+        public void print(String text) {
+            bytes += text.getBytes(StandardCharsets.UTF_8).length;
+            last = text;
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
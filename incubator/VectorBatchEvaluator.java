@@ -0,0 +1,152 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A BatchEvaluator over the incubating Vector API, evaluating one hand per
+ * byte lane. The count of each face is built from lane-wise compares of the
+ * five dice, from which every pattern is a handful of mask operations. Hands
+ * left over after the last full vector are evaluated by the scalar evaluator.
+ *
+ * Dice and counts are kept in locals rather than arrays so that the JIT can
+ * keep every vector in a register.
+ *
+ * Kept apart from the other sources since it needs the incubator module:
+ *
+ * javac --add-modules jdk.incubator.vector -cp . -d . incubator/VectorBatchEvaluator.java
+ * java --add-modules jdk.incubator.vector ...
+ *
+ * BatchEvaluator.create falls back to the scalar evaluator when this class or
+ * the module is missing.
+ */
+public class VectorBatchEvaluator extends BatchEvaluator {
+
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+	private static final int YAHTZEE_SCORE = Scorer.getBaseScore(Game.Play.YAHTZEE, HandIndex.indexOf(1, 1, 1, 1, 1));
+
+	private final BatchEvaluator tail = BatchEvaluator.scalar();
+
+	@Override
+	public void evaluate(byte[][] faces, int from, int to, byte[] flags) {
+		checkRange(faces, from, to, flags);
+		int bound = from + SPECIES.loopBound(to - from);
+		for (int i = from; i < bound; i += SPECIES.length()) {
+			ByteVector d0 = ByteVector.fromArray(SPECIES, faces[0], i);
+			ByteVector d1 = ByteVector.fromArray(SPECIES, faces[1], i);
+			ByteVector d2 = ByteVector.fromArray(SPECIES, faces[2], i);
+			ByteVector d3 = ByteVector.fromArray(SPECIES, faces[3], i);
+			ByteVector d4 = ByteVector.fromArray(SPECIES, faces[4], i);
+			ByteVector c1 = count(d0, d1, d2, d3, d4, 1);
+			ByteVector c2 = count(d0, d1, d2, d3, d4, 2);
+			ByteVector c3 = count(d0, d1, d2, d3, d4, 3);
+			ByteVector c4 = count(d0, d1, d2, d3, d4, 4);
+			ByteVector c5 = count(d0, d1, d2, d3, d4, 5);
+			ByteVector c6 = count(d0, d1, d2, d3, d4, 6);
+			ByteVector max = c1.max(c2).max(c3).max(c4).max(c5).max(c6);
+			ByteVector result = ByteVector.zero(SPECIES)
+				.lanewise(VectorOperators.OR, (byte) KIND_3, max.compare(VectorOperators.GE, (byte) 3))
+				.lanewise(VectorOperators.OR, (byte) KIND_4, max.compare(VectorOperators.GE, (byte) 4))
+				.lanewise(VectorOperators.OR, (byte) YAHTZEE, max.eq((byte) Game.DICE_COUNT))
+				.lanewise(VectorOperators.OR, (byte) FULL_HOUSE, isFullHouse(c1, c2, c3, c4, c5, c6))
+				.lanewise(VectorOperators.OR, (byte) STRAIGHT_4, isStraight4(c1, c2, c3, c4, c5, c6))
+				.lanewise(VectorOperators.OR, (byte) STRAIGHT_5, isStraight5(c1, c2, c3, c4, c5, c6));
+			result.intoArray(flags, i);
+		}
+		tail.evaluate(faces, bound, to, flags);
+	}
+
+	@Override
+	public void score(Game.Play play, byte[][] faces, int from, int to, byte[] scores) {
+		checkRange(faces, from, to, scores);
+		ByteVector zero = ByteVector.zero(SPECIES);
+		int bound = from + SPECIES.loopBound(to - from);
+		for (int i = from; i < bound; i += SPECIES.length()) {
+			ByteVector d0 = ByteVector.fromArray(SPECIES, faces[0], i);
+			ByteVector d1 = ByteVector.fromArray(SPECIES, faces[1], i);
+			ByteVector d2 = ByteVector.fromArray(SPECIES, faces[2], i);
+			ByteVector d3 = ByteVector.fromArray(SPECIES, faces[3], i);
+			ByteVector d4 = ByteVector.fromArray(SPECIES, faces[4], i);
+			ByteVector result;
+			if (play.isUpper()) {
+				int face = Game.getUpperScoreDiceNumber(play);
+				result = count(d0, d1, d2, d3, d4, face).mul((byte) face);
+			} else if (Game.Play.CHANCE == play) {
+				result = d0.add(d1).add(d2).add(d3).add(d4);
+			} else {
+				ByteVector c1 = count(d0, d1, d2, d3, d4, 1);
+				ByteVector c2 = count(d0, d1, d2, d3, d4, 2);
+				ByteVector c3 = count(d0, d1, d2, d3, d4, 3);
+				ByteVector c4 = count(d0, d1, d2, d3, d4, 4);
+				ByteVector c5 = count(d0, d1, d2, d3, d4, 5);
+				ByteVector c6 = count(d0, d1, d2, d3, d4, 6);
+				switch (play) {
+					case KIND_3:
+						result = zero.blend(d0.add(d1).add(d2).add(d3).add(d4),
+							c1.max(c2).max(c3).max(c4).max(c5).max(c6).compare(VectorOperators.GE, (byte) 3));
+						break;
+					case KIND_4:
+						result = zero.blend(d0.add(d1).add(d2).add(d3).add(d4),
+							c1.max(c2).max(c3).max(c4).max(c5).max(c6).compare(VectorOperators.GE, (byte) 4));
+						break;
+					case YAHTZEE:
+						result = zero.blend((byte) YAHTZEE_SCORE,
+							c1.max(c2).max(c3).max(c4).max(c5).max(c6).eq((byte) Game.DICE_COUNT));
+						break;
+					case FULL_HOUSE:
+						result = zero.blend((byte) Game.FULL_HOUSE_SCORE, isFullHouse(c1, c2, c3, c4, c5, c6));
+						break;
+					case STRAIGHT_4:
+						result = zero.blend((byte) Game.LOW_STRAIGHT_SCORE, isStraight4(c1, c2, c3, c4, c5, c6));
+						break;
+					case STRAIGHT_5:
+						result = zero.blend((byte) Game.HIGH_STRAIGHT_SCORE, isStraight5(c1, c2, c3, c4, c5, c6));
+						break;
+					default:
+						throw new IllegalArgumentException("Play " + play + " cannot be vector scored");
+				}
+			}
+			result.intoArray(scores, i);
+		}
+		tail.score(play, faces, bound, to, scores);
+	}
+
+	private static ByteVector count(ByteVector d0, ByteVector d1, ByteVector d2, ByteVector d3, ByteVector d4,
+			int face) {
+		byte f = (byte) face;
+		return ByteVector.zero(SPECIES)
+			.add((byte) 1, d0.eq(f))
+			.add((byte) 1, d1.eq(f))
+			.add((byte) 1, d2.eq(f))
+			.add((byte) 1, d3.eq(f))
+			.add((byte) 1, d4.eq(f));
+	}
+
+	private static VectorMask<Byte> isFullHouse(ByteVector c1, ByteVector c2, ByteVector c3, ByteVector c4,
+			ByteVector c5, ByteVector c6) {
+		VectorMask<Byte> three = c1.eq((byte) 3).or(c2.eq((byte) 3)).or(c3.eq((byte) 3))
+			.or(c4.eq((byte) 3)).or(c5.eq((byte) 3)).or(c6.eq((byte) 3));
+		VectorMask<Byte> two = c1.eq((byte) 2).or(c2.eq((byte) 2)).or(c3.eq((byte) 2))
+			.or(c4.eq((byte) 2)).or(c5.eq((byte) 2)).or(c6.eq((byte) 2));
+		return three.and(two);
+	}
+
+	private static VectorMask<Byte> isStraight4(ByteVector c1, ByteVector c2, ByteVector c3, ByteVector c4,
+			ByteVector c5, ByteVector c6) {
+		VectorMask<Byte> middle = c3.compare(VectorOperators.NE, (byte) 0).and(c4.compare(VectorOperators.NE, (byte) 0));
+		VectorMask<Byte> low = c1.compare(VectorOperators.NE, (byte) 0).and(c2.compare(VectorOperators.NE, (byte) 0));
+		VectorMask<Byte> high = c5.compare(VectorOperators.NE, (byte) 0).and(c6.compare(VectorOperators.NE, (byte) 0));
+		VectorMask<Byte> two = c2.compare(VectorOperators.NE, (byte) 0);
+		VectorMask<Byte> five = c5.compare(VectorOperators.NE, (byte) 0);
+		// 1234, 2345 or 3456 all contain 3 and 4
+		return middle.and(low.or(two.and(five)).or(high));
+	}
+
+	private static VectorMask<Byte> isStraight5(ByteVector c1, ByteVector c2, ByteVector c3, ByteVector c4,
+			ByteVector c5, ByteVector c6) {
+		VectorMask<Byte> middle = c2.compare(VectorOperators.NE, (byte) 0).and(c3.compare(VectorOperators.NE, (byte) 0))
+			.and(c4.compare(VectorOperators.NE, (byte) 0)).and(c5.compare(VectorOperators.NE, (byte) 0));
+		// 12345 or 23456 both contain 2 through 5
+		return middle.and(c1.compare(VectorOperators.NE, (byte) 0).or(c6.compare(VectorOperators.NE, (byte) 0)));
+	}
+}